@@ -0,0 +1,90 @@
+package com.spedine.trackit.infra;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.spedine.trackit.model.AuthenticatedUser;
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.repository.RefreshTokenRepository;
+import com.spedine.trackit.service.TokenRevocationService;
+import com.spedine.trackit.service.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SecurityFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret";
+
+    SecurityFilter securityFilter;
+    MockHttpServletRequest claimsRequest;
+    MockHttpServletRequest legacyRequest;
+    MockHttpServletResponse response;
+    FilterChain filterChain;
+
+    @Setup
+    public void setUp() {
+        TokenService tokenService = new TokenService(SECRET, Duration.ofMinutes(15), 10_000, new SimpleMeterRegistry());
+        TokenRevocationService tokenRevocationService =
+                new TokenRevocationService(mock(RefreshTokenRepository.class), Duration.ofMinutes(15));
+        User user = new User("Benchmark User", "benchmark@example.com", "encodedPassword");
+
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(user.getEmail()))
+                .thenReturn(new AuthenticatedUser(user.getId(), user.getName(), user.getEmail(), user.getRole()));
+
+        securityFilter = new SecurityFilter(tokenService, tokenRevocationService, userDetailsService);
+
+        claimsRequest = new MockHttpServletRequest();
+        claimsRequest.addHeader("Authorization", "Bearer " + tokenService.genToken(user, UUID.randomUUID()));
+
+        // tokens issued before the identity claims existed still go through the user lookup
+        legacyRequest = new MockHttpServletRequest();
+        legacyRequest.addHeader("Authorization", "Bearer " + JWT.create()
+                .withIssuer("TrackIt API")
+                .withSubject(user.getEmail())
+                .withExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .sign(Algorithm.HMAC256(SECRET)));
+
+        response = new MockHttpServletResponse();
+        filterChain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public String getBearerToken() {
+        return securityFilter.getBearerToken(claimsRequest);
+    }
+
+    @Benchmark
+    public void doFilterInternal() throws Exception {
+        securityFilter.doFilterInternal(claimsRequest, response, filterChain);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void doFilterInternalWithUserLookup() throws Exception {
+        securityFilter.doFilterInternal(legacyRequest, response, filterChain);
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -0,0 +1,55 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenServiceBenchmark {
+
+    TokenService tokenService;
+    TokenService uncachedTokenService;
+    User user;
+    UUID sessionId;
+    String token;
+
+    @Setup
+    public void setUp() {
+        tokenService = new TokenService("benchmark-secret", Duration.ofMinutes(15), 10_000, new SimpleMeterRegistry());
+        // a cache bounded to zero entries drops every token right away
+        uncachedTokenService = new TokenService("benchmark-secret", Duration.ofMinutes(15), 0, new SimpleMeterRegistry());
+        user = new User("Benchmark User", "benchmark@example.com", "encodedPassword");
+        sessionId = UUID.randomUUID();
+        token = tokenService.genToken(user, sessionId);
+    }
+
+    @Benchmark
+    public String genToken() {
+        return tokenService.genToken(user, sessionId);
+    }
+
+    @Benchmark
+    public String getSubject() {
+        return tokenService.getSubject(token);
+    }
+
+    /**
+     * Full signature verification, as paid by the first request carrying a token.
+     */
+    @Benchmark
+    public String getSubjectUncached() {
+        return uncachedTokenService.getSubject(token);
+    }
+}
@@ -0,0 +1,34 @@
+package com.spedine.trackit.controller;
+
+import com.spedine.trackit.dto.MessageResponse;
+import com.spedine.trackit.service.ExpenseDailyTotalService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/expenses")
+@Tag(name = "Admin", description = "Administrative endpoints. Requires a Bearer JWT token of an ADMIN user.")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminExpenseController {
+
+    private final ExpenseDailyTotalService dailyTotalService;
+
+    public AdminExpenseController(ExpenseDailyTotalService dailyTotalService) {
+        this.dailyTotalService = dailyTotalService;
+    }
+
+    @PostMapping("/daily-totals/rebuild")
+    @Operation(
+            summary = "Rebuild daily totals",
+            description = "Recompute the daily expense totals used by the summary for every user. Only needed after expenses were changed directly in the database."
+    )
+    public ResponseEntity<MessageResponse> rebuildDailyTotals() {
+        int users = dailyTotalService.rebuildAll();
+        return ResponseEntity.ok(new MessageResponse("Rebuilt daily totals of " + users + " users"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.spedine.trackit.controller;
+
+import com.spedine.trackit.dto.BatchResponse;
+import com.spedine.trackit.dto.BulkUserRegisterRequest;
+import com.spedine.trackit.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/users")
+@Tag(name = "Admin", description = "Administrative endpoints. Requires a Bearer JWT token of an ADMIN user.")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminUserController {
+
+    private final UserService userService;
+
+    public AdminUserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Bulk register users",
+            description = "Create up to 1000 user accounts in one request. Each row is validated independently and the response reports the outcome of every row."
+    )
+    public ResponseEntity<BatchResponse> registerUsers(@RequestBody @Valid BulkUserRegisterRequest body) {
+        return ResponseEntity.ok(userService.registerUsers(body.users()));
+    }
+}
@@ -1,12 +1,17 @@
 package com.spedine.trackit.controller;
 
 import com.spedine.trackit.dto.MessageResponse;
+import com.spedine.trackit.dto.RefreshTokenRequest;
+import com.spedine.trackit.dto.TokenResponse;
 import com.spedine.trackit.dto.UserLoginRequest;
 import com.spedine.trackit.dto.UserRegisterRequest;
+import com.spedine.trackit.infra.LoginRateLimiter;
 import com.spedine.trackit.service.AuthenticationService;
+import com.spedine.trackit.service.RefreshTokenService;
 import com.spedine.trackit.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +20,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/auth")
@@ -24,10 +29,15 @@ public class AuthenticationController {
 
     private final UserService userService;
     private final AuthenticationService authenticationService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthenticationController(UserService userService, AuthenticationService authenticationService) {
+    public AuthenticationController(UserService userService, AuthenticationService authenticationService,
+                                    RefreshTokenService refreshTokenService, LoginRateLimiter loginRateLimiter) {
         this.userService = userService;
         this.authenticationService = authenticationService;
+        this.refreshTokenService = refreshTokenService;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @PostMapping("/register")
@@ -35,18 +45,39 @@ public class AuthenticationController {
             summary = "Register user",
             description = "Create a new user account. Public route (no bearer token required)."
     )
-    public ResponseEntity<MessageResponse> register(@RequestBody @Valid UserRegisterRequest body) {
-        userService.registerUser(body);
-        return ResponseEntity.status(HttpStatus.CREATED).body(new MessageResponse("User registered successfully"));
+    public CompletableFuture<ResponseEntity<MessageResponse>> register(@RequestBody @Valid UserRegisterRequest body) {
+        return userService.registerUser(body)
+                .thenApply(registered -> ResponseEntity.status(HttpStatus.CREATED).body(new MessageResponse("User registered successfully")));
     }
 
     @PostMapping("/login")
     @Operation(
             summary = "Login",
-            description = "Authenticate with email and password to receive a JWT token. Public route (no bearer token required)."
+            description = "Authenticate with email and password to receive a short-lived JWT access token and a refresh token. Attempts are rate limited per email and per client IP. Public route (no bearer token required)."
     )
-    public ResponseEntity<Map<String, String>> login(@RequestBody @Valid UserLoginRequest body) {
-        String token = authenticationService.authenticateAndGenerateToken(body);
-        return ResponseEntity.ok(Map.of("token", token));
+    public CompletableFuture<ResponseEntity<TokenResponse>> login(@RequestBody @Valid UserLoginRequest body,
+                                                                  HttpServletRequest request) {
+        loginRateLimiter.acquire(body.email(), request.getRemoteAddr());
+        return authenticationService.authenticateAndGenerateToken(body)
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/refresh")
+    @Operation(
+            summary = "Refresh token",
+            description = "Exchange a refresh token for a new access token and refresh token. Each refresh token works once; reusing one revokes its session. Public route (no bearer token required)."
+    )
+    public ResponseEntity<TokenResponse> refresh(@RequestBody @Valid RefreshTokenRequest body) {
+        return ResponseEntity.ok(refreshTokenService.rotate(body.refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(
+            summary = "Logout",
+            description = "Revoke the session of the given refresh token, including its outstanding access tokens. Public route (no bearer token required)."
+    )
+    public ResponseEntity<Void> logout(@RequestBody @Valid RefreshTokenRequest body) {
+        refreshTokenService.revoke(body.refreshToken());
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 }
@@ -2,8 +2,13 @@ package com.spedine.trackit.controller;
 
 import com.spedine.trackit.dto.*;
 import com.spedine.trackit.infra.util.AuthenticationUtil;
+import com.spedine.trackit.model.ECountMode;
+import com.spedine.trackit.model.EExpenseField;
+import com.spedine.trackit.model.ETimeGranularity;
+import com.spedine.trackit.model.ETimeSeriesSplit;
 import com.spedine.trackit.model.User;
 import com.spedine.trackit.service.ExpenseService;
+import com.spedine.trackit.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,6 +17,7 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springdoc.core.annotations.ParameterObject;
 
 import java.time.LocalDate;
@@ -24,49 +30,134 @@ import java.util.UUID;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final IdempotencyService idempotencyService;
     private final AuthenticationUtil authenticationUtil;
 
-    public ExpenseController(ExpenseService expenseService, AuthenticationUtil authenticationUtil) {
+    public ExpenseController(ExpenseService expenseService, IdempotencyService idempotencyService,
+                             AuthenticationUtil authenticationUtil) {
         this.expenseService = expenseService;
+        this.idempotencyService = idempotencyService;
         this.authenticationUtil = authenticationUtil;
     }
 
     @PostMapping
     @Operation(
             summary = "Create expense",
-            description = "Create a new expense for the authenticated user."
+            description = "Create a new expense for the authenticated user. Send an Idempotency-Key header to retry safely: " +
+                    "a retry with the same key returns the original response without creating another expense."
     )
-    public ResponseEntity<MessageResponse> createExpense(@RequestBody @Valid CreateExpenseRequest body) {
+    public ResponseEntity<MessageResponse> createExpense(
+            @RequestBody @Valid CreateExpenseRequest body,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
+        User user = authenticationUtil.getCurrentUser();
+        IdempotencyService.Result<MessageResponse> result = idempotencyService.execute(user.getId(), idempotencyKey,
+                "expenses.create", body, MessageResponse.class, () -> {
+                    expenseService.save(body, user);
+                    return new MessageResponse("Expense created successfully");
+                });
+        return idempotentResponse(HttpStatus.CREATED, result);
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Create expenses in batch",
+            description = "Create up to 500 expenses for the authenticated user in one transaction. Each item is validated independently and the response reports the created ID or the errors of every item. " +
+                    "Supports the Idempotency-Key header like the single create."
+    )
+    public ResponseEntity<BatchResponse> createExpenses(
+            @RequestBody @Valid BatchCreateExpenseRequest body,
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey
+    ) {
         User user = authenticationUtil.getCurrentUser();
-        expenseService.save(body, user);
-        return ResponseEntity.status(HttpStatus.CREATED).body(new MessageResponse("Expense created successfully"));
+        IdempotencyService.Result<BatchResponse> result = idempotencyService.execute(user.getId(), idempotencyKey,
+                "expenses.create-batch", body, BatchResponse.class, () -> expenseService.saveAll(body.expenses(), user));
+        return idempotentResponse(HttpStatus.OK, result);
     }
 
     @GetMapping
     @Operation(
         summary = "List expenses",
-        description = "Get a paginated list of the user's expenses. Supports optional filters via query parameters."
+        description = "Get a paginated list of the user's expenses. Supports optional filters via query parameters. " +
+                "Use count=none to skip the total count (only hasNext is returned) or count=estimate to get a recently cached total. " +
+                "Use fields (e.g. fields=id,amount,expenseDate) to return only some fields. " +
+                "Send the returned ETag in If-None-Match to get 304 Not Modified while the user's expenses are unchanged."
     )
     public ResponseEntity<PageResponse<ExpenseResponse>> getExpenses(
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "10") int size,
-            @ParameterObject @ModelAttribute ExpenseFilter filter
+            @RequestParam(value = "count", defaultValue = "exact") String count,
+            @RequestParam(value = "fields", required = false) String fields,
+            @ParameterObject @ModelAttribute ExpenseFilter filter,
+            WebRequest request
+    ) {
+        User user = authenticationUtil.getCurrentUser();
+        if (request.checkNotModified(eTag(user))) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.findAll(user, page, size, filter, ECountMode.from(count), EExpenseField.parse(fields)));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(
+            summary = "Scroll expenses",
+            description = "Get the user's expenses with cursor pagination, newest first. Pass the returned nextCursor to get the next page; deep pages cost the same as the first. Supports the same filters as the list endpoint."
+    )
+    public ResponseEntity<CursorPageResponse<ExpenseResponse>> scrollExpenses(
+            @RequestParam(value = "size", defaultValue = "10") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @ParameterObject @ModelAttribute ExpenseFilter filter,
+            WebRequest request
+    ) {
+        User user = authenticationUtil.getCurrentUser();
+        if (request.checkNotModified(eTag(user))) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.scroll(user, size, cursor, filter));
+    }
+
+    @PostMapping("/lookup")
+    @Operation(
+            summary = "Get expenses by IDs",
+            description = "Retrieve up to 500 expenses by ID in one call, in the requested order. IDs that do not exist or belong to another user are listed in missing. " +
+                    "Use fields to return only some fields; id is always returned."
+    )
+    public ResponseEntity<ExpenseLookupResponse> lookupExpenses(
+            @RequestBody @Valid ExpenseLookupRequest body,
+            @RequestParam(value = "fields", required = false) String fields
     ) {
         User user = authenticationUtil.getCurrentUser();
-        return ResponseEntity.ok(expenseService.findAll(user, page, size, filter));
+        return ResponseEntity.ok(expenseService.findAllByIds(body.ids(), user, EExpenseField.parse(fields)));
     }
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Get expense by ID",
-            description = "Retrieve a single expense by its ID for the authenticated user."
+            description = "Retrieve a single expense by its ID for the authenticated user. Use fields to return only some fields."
     )
-    public ResponseEntity<ExpenseResponse> getExpenseById(@PathVariable UUID id) {
+    public ResponseEntity<ExpenseResponse> getExpenseById(
+            @PathVariable UUID id,
+            @RequestParam(value = "fields", required = false) String fields,
+            WebRequest request
+    ) {
         User user = authenticationUtil.getCurrentUser();
-        ExpenseResponse expense = expenseService.findByUserAndId(id, user);
+        if (request.checkNotModified(eTag(user))) {
+            return null;
+        }
+        ExpenseResponse expense = expenseService.findByUserAndId(id, user, EExpenseField.parse(fields));
         return ResponseEntity.ok(expense);
     }
 
+    @PatchMapping("/{id}")
+    @Operation(
+            summary = "Partially update expense",
+            description = "Update only the provided fields of an existing expense by ID."
+    )
+    public ResponseEntity<ExpenseResponse> patchExpense(@PathVariable UUID id, @RequestBody @Valid UpdateExpenseRequest body) {
+        User user = authenticationUtil.getCurrentUser();
+        return ResponseEntity.ok(expenseService.update(id, body, user));
+    }
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Update expense",
@@ -88,16 +179,86 @@ public class ExpenseController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    @PatchMapping
+    @Operation(
+            summary = "Bulk update expenses",
+            description = "Set the category, currency or payment method of every expense of the authenticated user matching the filters. At least one filter and one field are required."
+    )
+    public ResponseEntity<BulkResultResponse> updateExpenses(
+            @ParameterObject @ModelAttribute ExpenseFilter filter,
+            @RequestBody @Valid BulkUpdateExpenseRequest body
+    ) {
+        User user = authenticationUtil.getCurrentUser();
+        return ResponseEntity.ok(expenseService.updateAll(filter, body, user));
+    }
+
+    @DeleteMapping
+    @Operation(
+            summary = "Bulk delete expenses",
+            description = "Delete every expense of the authenticated user matching the filters. At least one filter is required."
+    )
+    public ResponseEntity<BulkResultResponse> deleteExpenses(@ParameterObject @ModelAttribute ExpenseFilter filter) {
+        User user = authenticationUtil.getCurrentUser();
+        return ResponseEntity.ok(expenseService.deleteAll(filter, user));
+    }
+
     @GetMapping("/summary")
     @Operation(
             summary = "Expense summary",
-            description = "Get totals and breakdowns for a date range. If no dates are provided, returns overall summary."
+            description = "Get totals and breakdowns for a date range. If no dates are provided, returns overall summary. Supports If-None-Match with the returned ETag."
     )
     public ResponseEntity<ExpenseSummaryResponse> getSummary(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            WebRequest request
     ) {
         User user = authenticationUtil.getCurrentUser();
+        // the default range ends today, so the same version describes a different summary tomorrow
+        if (request.checkNotModified(eTag(user, LocalDate.now()))) {
+            return null;
+        }
         return ResponseEntity.ok(expenseService.getExpenseSummary(user, startDate, endDate));
     }
+
+    @GetMapping("/summary/timeseries")
+    @Operation(
+            summary = "Expense time series",
+            description = "Get spending per day, week or month from one grouped query, optionally split by category or currency. " +
+                    "Supports the same filters as the list endpoint. The response is columnar: every series has one total and count per bucket. " +
+                    "Supports If-None-Match with the returned ETag."
+    )
+    public ResponseEntity<ExpenseTimeSeriesResponse> getTimeSeries(
+            @RequestParam(value = "granularity", defaultValue = "month") String granularity,
+            @RequestParam(value = "split", required = false) String split,
+            @ParameterObject @ModelAttribute ExpenseFilter filter,
+            WebRequest request
+    ) {
+        User user = authenticationUtil.getCurrentUser();
+        if (request.checkNotModified(eTag(user))) {
+            return null;
+        }
+        return ResponseEntity.ok(expenseService.getTimeSeries(user, filter,
+                ETimeGranularity.from(granularity), ETimeSeriesSplit.from(split)));
+    }
+
+    private static <T> ResponseEntity<T> idempotentResponse(HttpStatus status, IdempotencyService.Result<T> result) {
+        return ResponseEntity.status(status)
+                .header(IdempotencyService.IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.response());
+    }
+
+    /**
+     * Weak ETag from the user's change version: any write to the user's expenses changes it,
+     * so a match means the response would be the same without querying the expenses.
+     */
+    private String eTag(User user, Object... qualifiers) {
+        StringBuilder tag = new StringBuilder("W/\"")
+                .append(user.getId())
+                .append(':')
+                .append(expenseService.getChangeVersion(user));
+        for (Object qualifier : qualifiers) {
+            tag.append(':').append(qualifier);
+        }
+        return tag.append('"').toString();
+    }
 }
@@ -0,0 +1,19 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Items are validated one by one so a bad expense is reported instead of rejecting the batch.
+ */
+@Schema(name = "BatchCreateExpenseRequest", description = "Payload to create many expenses at once")
+public record BatchCreateExpenseRequest(
+        @NotEmpty
+        @Size(max = 500, message = "At most 500 expenses can be created per request")
+        @Schema(description = "Expenses to create")
+        List<CreateExpenseRequest> expenses
+) {
+}
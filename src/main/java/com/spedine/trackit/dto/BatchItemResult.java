@@ -0,0 +1,31 @@
+package com.spedine.trackit.dto;
+
+import com.spedine.trackit.model.EBatchItemStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(name = "BatchItemResult", description = "Outcome of one item of a batch request")
+public record BatchItemResult(
+        @Schema(description = "Position of the item in the request (0-based)", example = "0")
+        int index,
+        @Schema(description = "Item outcome", example = "CREATED")
+        EBatchItemStatus status,
+        @Schema(description = "ID of the created resource, when successful", example = "3fa85f64-5717-4562-b3fc-2c963f66afa6")
+        UUID id,
+        @Schema(description = "Reasons the item was rejected, when failed")
+        List<String> errors
+) {
+    public static BatchItemResult created(int index, UUID id) {
+        return new BatchItemResult(index, EBatchItemStatus.CREATED, id, List.of());
+    }
+
+    public static BatchItemResult failed(int index, List<String> errors) {
+        return new BatchItemResult(index, EBatchItemStatus.FAILED, null, errors);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return failed(index, List.of(error));
+    }
+}
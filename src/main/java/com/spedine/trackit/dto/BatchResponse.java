@@ -0,0 +1,23 @@
+package com.spedine.trackit.dto;
+
+import com.spedine.trackit.model.EBatchItemStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "BatchResponse", description = "Per-item report of a batch request")
+public record BatchResponse(
+        @Schema(description = "Number of items in the request", example = "3")
+        int total,
+        @Schema(description = "Number of items that succeeded", example = "2")
+        int succeeded,
+        @Schema(description = "Number of items that failed", example = "1")
+        int failed,
+        @Schema(description = "One result per item, in request order")
+        List<BatchItemResult> items
+) {
+    public static BatchResponse of(List<BatchItemResult> items) {
+        int failed = (int) items.stream().filter(item -> item.status() == EBatchItemStatus.FAILED).count();
+        return new BatchResponse(items.size(), items.size() - failed, failed, items);
+    }
+}
@@ -0,0 +1,10 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "BulkResultResponse", description = "Result of an operation applied to every matching expense")
+public record BulkResultResponse(
+        @Schema(description = "Number of affected expenses", example = "128")
+        long affected
+) {
+}
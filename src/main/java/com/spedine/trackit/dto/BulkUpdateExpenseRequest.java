@@ -0,0 +1,24 @@
+package com.spedine.trackit.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.spedine.trackit.model.ECategory;
+import com.spedine.trackit.model.ECurrency;
+import com.spedine.trackit.model.EPaymentMethod;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.AssertTrue;
+
+@Schema(name = "BulkUpdateExpenseRequest", description = "Fields to set on every matching expense. Null fields are left untouched; at least one is required.")
+public record BulkUpdateExpenseRequest(
+        @Schema(description = "New category", example = "FOOD")
+        ECategory category,
+        @Schema(description = "New currency", example = "USD")
+        ECurrency currency,
+        @Schema(description = "New payment method", example = "CREDIT_CARD")
+        EPaymentMethod paymentMethod
+) {
+    @JsonIgnore
+    @AssertTrue(message = "At least one field to update is required")
+    public boolean isAnyFieldSet() {
+        return category != null || currency != null || paymentMethod != null;
+    }
+}
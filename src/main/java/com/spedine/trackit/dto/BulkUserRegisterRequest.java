@@ -0,0 +1,19 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Items are validated one by one so a bad row is reported instead of rejecting the batch.
+ */
+@Schema(name = "BulkUserRegisterRequest", description = "Payload to create many user accounts at once")
+public record BulkUserRegisterRequest(
+        @NotEmpty
+        @Size(max = 1000, message = "At most 1000 users can be registered per request")
+        @Schema(description = "Users to register")
+        List<UserRegisterRequest> users
+) {
+}
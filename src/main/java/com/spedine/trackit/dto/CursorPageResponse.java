@@ -0,0 +1,18 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "CursorPageResponse", description = "Generic cursor-paginated response wrapper")
+public record CursorPageResponse<T>(
+        @Schema(description = "Current page content")
+        List<T> content,
+        @Schema(description = "Page size", example = "10")
+        int size,
+        @Schema(description = "Opaque cursor to request the next page; null on the last page", example = "MjAyNS0wOC0yMlQxODozMDp8NWExZTNhM2U")
+        String nextCursor,
+        @Schema(description = "Whether another page exists", example = "true")
+        boolean hasNext
+) {
+}
@@ -6,6 +6,8 @@ import com.spedine.trackit.model.EPaymentMethod;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 
 @Schema(name = "ExpenseFilter", description = "Optional filters for listing expenses. If provided, filters are combined (AND).")
 public record ExpenseFilter(
@@ -22,4 +24,30 @@ public record ExpenseFilter(
         @Schema(description = "Filter by payment method", example = "PIX")
         EPaymentMethod paymentMethod
 ) {
+    /**
+     * Inclusive lower bound of the filtered range: startDate, or the start of month when no
+     * dates are given.
+     */
+    public LocalDateTime rangeStart() {
+        if (startDate != null || endDate != null) {
+            return startDate;
+        }
+        return month == null ? null : YearMonth.parse(month).atDay(1).atStartOfDay();
+    }
+
+    /**
+     * Inclusive upper bound of the filtered range: endDate, or the end of month when no dates
+     * are given.
+     */
+    public LocalDateTime rangeEnd() {
+        if (startDate != null || endDate != null) {
+            return endDate;
+        }
+        return month == null ? null : YearMonth.parse(month).atEndOfMonth().atTime(LocalTime.MAX);
+    }
+
+    public boolean isEmpty() {
+        return month == null && startDate == null && endDate == null
+                && currency == null && category == null && paymentMethod == null;
+    }
 }
@@ -0,0 +1,18 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(name = "ExpenseLookupRequest", description = "Payload to fetch many expenses by ID at once")
+public record ExpenseLookupRequest(
+        @NotEmpty
+        @Size(max = 500, message = "At most 500 expenses can be fetched per request")
+        @Schema(description = "IDs to fetch; the response keeps this order")
+        List<@NotNull UUID> ids
+) {
+}
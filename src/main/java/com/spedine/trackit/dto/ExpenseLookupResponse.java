@@ -0,0 +1,15 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(name = "ExpenseLookupResponse", description = "Expenses found for a lookup, in request order")
+public record ExpenseLookupResponse(
+        @Schema(description = "Found expenses, in the order they were requested")
+        List<ExpenseResponse> expenses,
+        @Schema(description = "Requested IDs that do not exist or belong to another user")
+        List<UUID> missing
+) {
+}
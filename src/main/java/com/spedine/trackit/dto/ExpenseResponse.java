@@ -1,5 +1,6 @@
 package com.spedine.trackit.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.spedine.trackit.model.ECurrency;
 import com.spedine.trackit.model.ECategory;
 import com.spedine.trackit.model.EPaymentMethod;
@@ -10,7 +11,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
-@Schema(name = "ExpenseResponse", description = "Expense data returned by the API")
+@Schema(name = "ExpenseResponse", description = "Expense data returned by the API. Fields left out with the fields parameter are omitted.")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ExpenseResponse(
         @Schema(description = "Expense unique identifier", example = "5a1e3a3e-4f8c-4c1b-9c8e-2a7a9a1b2c3d")
         UUID id,
@@ -0,0 +1,17 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(name = "ExpenseTimeSeries", description = "Totals of one series, parallel to the buckets of the time series")
+public record ExpenseTimeSeries(
+        @Schema(description = "Category or currency of the series; null when the time series is not split", example = "FOOD")
+        String key,
+        @Schema(description = "Total amount per bucket", example = "[120.50, 0, 89.90]")
+        List<BigDecimal> totals,
+        @Schema(description = "Number of expenses per bucket", example = "[3, 0, 2]")
+        List<Long> counts
+) {
+}
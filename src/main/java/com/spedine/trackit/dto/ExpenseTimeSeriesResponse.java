@@ -0,0 +1,21 @@
+package com.spedine.trackit.dto;
+
+import com.spedine.trackit.model.ETimeGranularity;
+import com.spedine.trackit.model.ETimeSeriesSplit;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Schema(name = "ExpenseTimeSeriesResponse", description = "Spending over time in columnar form: every series has one value per bucket")
+public record ExpenseTimeSeriesResponse(
+        @Schema(description = "Size of the buckets", example = "MONTH")
+        ETimeGranularity granularity,
+        @Schema(description = "Column the series are split by; null for a single series", example = "CATEGORY")
+        ETimeSeriesSplit split,
+        @Schema(description = "Start of every bucket from the first to the last one with expenses, without gaps", example = "[\"2025-06-01\", \"2025-07-01\", \"2025-08-01\"]")
+        List<LocalDate> buckets,
+        @Schema(description = "Series ordered by key")
+        List<ExpenseTimeSeries> series
+) {
+}
@@ -2,6 +2,7 @@ package com.spedine.trackit.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
@@ -13,12 +14,38 @@ public record PageResponse<T>(
         int page,
         @Schema(description = "Page size", example = "10")
         int size,
-        @Schema(description = "Total number of elements", example = "42")
-        long totalElements,
-        @Schema(description = "Total number of pages", example = "5")
-        int totalPages
+        @Schema(description = "Total number of elements; null when counting was skipped", example = "42")
+        Long totalElements,
+        @Schema(description = "Total number of pages; null when counting was skipped", example = "5")
+        Integer totalPages,
+        @Schema(description = "Whether another page exists", example = "true")
+        boolean hasNext,
+        @Schema(description = "Whether the totals are an estimate", example = "false")
+        boolean estimated
 ) {
     public PageResponse(Page<T> page) {
-        this(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages());
+        this(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(), page.getTotalPages(),
+                page.hasNext(), false);
+    }
+
+    public PageResponse(Slice<T> slice) {
+        this(slice.getContent(), slice.getNumber(), slice.getSize(), null, null, slice.hasNext(), false);
+    }
+
+    public PageResponse(Slice<T> slice, long estimatedTotal) {
+        this(slice, Math.max(estimatedTotal, lowerBound(slice)), true);
+    }
+
+    private PageResponse(Slice<T> slice, long total, boolean estimated) {
+        this(slice.getContent(), slice.getNumber(), slice.getSize(), total,
+                slice.getSize() == 0 ? 1 : (int) Math.ceil((double) total / slice.getSize()),
+                slice.hasNext(), estimated);
+    }
+
+    /**
+     * Rows known to exist from the slice itself, so a stale estimate never contradicts the page.
+     */
+    private static long lowerBound(Slice<?> slice) {
+        return (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
     }
 }
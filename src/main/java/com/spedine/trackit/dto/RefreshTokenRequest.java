@@ -0,0 +1,12 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(name = "RefreshTokenRequest", description = "Refresh token issued by login or a previous refresh")
+public record RefreshTokenRequest(
+        @NotBlank
+        @Schema(description = "Refresh token", example = "q5x0Wc2m...")
+        String refreshToken
+) {
+}
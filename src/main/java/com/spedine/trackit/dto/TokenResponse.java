@@ -0,0 +1,14 @@
+package com.spedine.trackit.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "TokenResponse", description = "Access token and the refresh token that renews it")
+public record TokenResponse(
+        @Schema(description = "Short-lived JWT access token", example = "eyJhbGciOiJIUzI1NiJ9...")
+        String token,
+        @Schema(description = "Single-use refresh token, rotated on every refresh", example = "q5x0Wc2m...")
+        String refreshToken,
+        @Schema(description = "Access token lifetime in seconds", example = "900")
+        long expiresIn
+) {
+}
@@ -0,0 +1,55 @@
+package com.spedine.trackit.infra;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt cost whose hash time stays within a target on the current machine.
+ * Every measured cost is logged, which doubles as a quick hash-time-per-cost report.
+ */
+final class BCryptCostCalibrator {
+
+    static final int MIN_COST = 10;
+    static final int MAX_COST = 16;
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+    private static final String SAMPLE_PASSWORD = "calibration-P@ssw0rd";
+    private static final int SAMPLES = 2;
+
+    private BCryptCostCalibrator() {
+    }
+
+    static int calibrate(Duration targetHashTime) {
+        // warm up so the first measured cost doesn't pay for class loading and JIT
+        measure(4);
+
+        int chosen = MIN_COST;
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            Duration hashTime = measure(cost);
+            log.info("BCrypt cost {} takes {} ms", cost, hashTime.toMillis());
+            if (hashTime.compareTo(targetHashTime) > 0) {
+                break;
+            }
+            chosen = cost;
+        }
+        log.info("Using BCrypt cost {} for a target hash time of {} ms", chosen, targetHashTime.toMillis());
+        return chosen;
+    }
+
+    /**
+     * Best of a few runs, which filters out scheduling noise better than the average.
+     */
+    static Duration measure(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Duration.ofNanos(best);
+    }
+}
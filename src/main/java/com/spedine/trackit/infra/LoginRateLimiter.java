@@ -0,0 +1,89 @@
+package com.spedine.trackit.infra;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spedine.trackit.infra.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Throttles login attempts per client IP and per email before any password is hashed.
+ * Buckets live in Caffeine maps and are dropped once idle; an evicted bucket would have
+ * been full again anyway, as long as the idle timeout is longer than the refill periods.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, TokenBucket> bucketsByEmail;
+    private final Cache<String, TokenBucket> bucketsByIp;
+    private final int emailCapacity;
+    private final Duration emailRefillPeriod;
+    private final int ipCapacity;
+    private final Duration ipRefillPeriod;
+
+    private final Counter allowed;
+    private final Counter rejectedByEmail;
+    private final Counter rejectedByIp;
+
+    public LoginRateLimiter(@Value("${auth.login.rate-limit.email.capacity:5}") int emailCapacity,
+                            @Value("${auth.login.rate-limit.email.refill-period:1m}") Duration emailRefillPeriod,
+                            @Value("${auth.login.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${auth.login.rate-limit.ip.refill-period:1m}") Duration ipRefillPeriod,
+                            @Value("${auth.login.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                            @Value("${auth.login.rate-limit.maximum-size:100000}") long maximumSize,
+                            MeterRegistry meterRegistry) {
+        this.emailCapacity = emailCapacity;
+        this.emailRefillPeriod = emailRefillPeriod;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPeriod = ipRefillPeriod;
+        this.bucketsByEmail = buckets(idleTimeout, maximumSize);
+        this.bucketsByIp = buckets(idleTimeout, maximumSize);
+        this.allowed = Counter.builder("auth.login.attempts")
+                .tag("outcome", "allowed")
+                .register(meterRegistry);
+        this.rejectedByEmail = Counter.builder("auth.login.attempts")
+                .tag("outcome", "rejected")
+                .tag("limit", "email")
+                .register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.login.attempts")
+                .tag("outcome", "rejected")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @throws RateLimitExceededException when either the IP or the email ran out of attempts
+     */
+    public void acquire(String email, String clientIp) {
+        long now = System.nanoTime();
+
+        Duration ipWait = bucketsByIp.get(clientIp, key -> new TokenBucket(ipCapacity, ipRefillPeriod, now))
+                .tryConsume(now);
+        if (!ipWait.isZero()) {
+            rejectedByIp.increment();
+            throw new RateLimitExceededException("Too many login attempts from this address", ipWait);
+        }
+
+        String normalizedEmail = email.trim().toLowerCase(Locale.ROOT);
+        Duration emailWait = bucketsByEmail.get(normalizedEmail, key -> new TokenBucket(emailCapacity, emailRefillPeriod, now))
+                .tryConsume(now);
+        if (!emailWait.isZero()) {
+            rejectedByEmail.increment();
+            throw new RateLimitExceededException("Too many login attempts for this account", emailWait);
+        }
+
+        allowed.increment();
+    }
+
+    private static Cache<String, TokenBucket> buckets(Duration idleTimeout, long maximumSize) {
+        return Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout)
+                .maximumSize(maximumSize)
+                .build();
+    }
+}
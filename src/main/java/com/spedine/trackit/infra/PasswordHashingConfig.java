@@ -0,0 +1,46 @@
+package com.spedine.trackit.infra;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Runs BCrypt work off the servlet threads. The pool is bounded and its queue is capped,
+ * so a burst of logins is rejected with 503 instead of starving the other endpoints.
+ * Queue depth and pool usage are exported by actuator as {@code executor.*} metrics
+ * tagged {@code name=passwordHashingExecutor}.
+ * <p>
+ * Any Executor bean makes Boot skip its {@code applicationTaskExecutor}, which would leave
+ * unqualified {@code @Async} methods and MVC async requests on this small pool, so the
+ * default executor is declared here from Boot's own builder.
+ */
+@Configuration
+@EnableAsync
+public class PasswordHashingConfig {
+
+    public static final String PASSWORD_HASHING_EXECUTOR = "passwordHashingExecutor";
+
+    @Bean(name = PASSWORD_HASHING_EXECUTOR)
+    ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${security.password.hashing.pool-size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int poolSize,
+            @Value("${security.password.hashing.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        return executor;
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
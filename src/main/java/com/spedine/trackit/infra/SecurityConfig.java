@@ -1,5 +1,8 @@
 package com.spedine.trackit.infra;
 
+import com.spedine.trackit.model.ERole;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,10 +14,14 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -34,8 +41,9 @@ public class SecurityConfig {
                 .exceptionHandling(ex -> ex.authenticationEntryPoint(entryPoint))
                 .authorizeHttpRequests(
                         req -> {
-                            req.requestMatchers(HttpMethod.POST, "/auth/login", "/auth/register").permitAll();
+                            req.requestMatchers(HttpMethod.POST, "/auth/login", "/auth/register", "/auth/refresh", "/auth/logout").permitAll();
                             req.requestMatchers("/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**").permitAll();
+                            req.requestMatchers("/admin/**").hasRole(ERole.ADMIN.name());
                             req.anyRequest().authenticated();
                         }
                 )
@@ -49,7 +57,16 @@ public class SecurityConfig {
     }
 
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt.strength:auto}") String strength,
+                                    @Value("${security.password.bcrypt.target-hash-time:250ms}") Duration targetHashTime,
+                                    MeterRegistry meterRegistry) {
+        int cost = "auto".equalsIgnoreCase(strength)
+                ? BCryptCostCalibrator.calibrate(targetHashTime)
+                : Integer.parseInt(strength);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(cost);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        // hashes stored before the {bcrypt} prefix was introduced; they get rehashed on the next login
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new TimedPasswordEncoder(encoder, meterRegistry);
     }
 }
@@ -1,6 +1,8 @@
 package com.spedine.trackit.infra;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
 import com.spedine.trackit.infra.exception.JwtAuthenticationException;
+import com.spedine.trackit.service.TokenRevocationService;
 import com.spedine.trackit.service.TokenService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,10 +22,14 @@ public class SecurityFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
 
+    private final TokenRevocationService tokenRevocationService;
+
     private final UserDetailsService userDetailsService;
 
-    public SecurityFilter(TokenService tokenService, UserDetailsService userDetailsService) {
+    public SecurityFilter(TokenService tokenService, TokenRevocationService tokenRevocationService,
+                          UserDetailsService userDetailsService) {
         this.tokenService = tokenService;
+        this.tokenRevocationService = tokenRevocationService;
         this.userDetailsService = userDetailsService;
     }
 
@@ -33,8 +39,14 @@ public class SecurityFilter extends OncePerRequestFilter {
 
         if (jwt != null) {
             try {
-                String email = tokenService.getSubject(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                DecodedJWT token = tokenService.verify(jwt);
+                if (tokenService.getSessionId(token).map(tokenRevocationService::isRevoked).orElse(false)) {
+                    throw new JwtAuthenticationException("Session revoked");
+                }
+                UserDetails userDetails = tokenService.getAuthenticatedUser(token).orElse(null);
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(token.getSubject());
+                }
                 UsernamePasswordAuthenticationToken auth =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(auth);
@@ -47,7 +59,7 @@ public class SecurityFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getBearerToken(HttpServletRequest request) {
+    String getBearerToken(HttpServletRequest request) {
         String authToken = request.getHeader("Authorization");
 
         if (authToken != null) {
@@ -0,0 +1,45 @@
+package com.spedine.trackit.infra;
+
+import java.time.Duration;
+
+/**
+ * Classic token bucket: holds up to {@code capacity} tokens and refills them evenly over
+ * {@code refillPeriod}. Callers pass the current {@link System#nanoTime()} so the bucket
+ * stays easy to test.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double nanosPerToken;
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(int capacity, Duration refillPeriod, long nowNanos) {
+        this.capacity = capacity;
+        this.nanosPerToken = refillPeriod.toNanos() / (double) capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @return zero when the token was taken, otherwise how long until one becomes available
+     */
+    synchronized Duration tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil((1 - tokens) * nanosPerToken));
+    }
+
+    private void refill(long nowNanos) {
+        long elapsed = nowNanos - lastRefillNanos;
+        if (elapsed > 0) {
+            tokens = Math.min(capacity, tokens + elapsed / nanosPerToken);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
@@ -5,6 +5,9 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -17,6 +20,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.time.Duration;
 import java.util.List;
 
 @RestControllerAdvice
@@ -24,6 +28,12 @@ public class RestExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(RestExceptionHandler.class);
 
+    private final Duration overloadRetryAfter;
+
+    public RestExceptionHandler(@Value("${security.password.hashing.retry-after:1s}") Duration overloadRetryAfter) {
+        this.overloadRetryAfter = overloadRetryAfter;
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<ExceptionData> entityNotFoundException(EntityNotFoundException e,
                                                                  HttpServletRequest request) {
@@ -115,6 +125,66 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(data);
     }
 
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ExceptionData> taskRejectedException(TaskRejectedException e,
+                                                               HttpServletRequest request) {
+        log.warn("Task rejected: {}", e.getMessage());
+        ExceptionData data = new ExceptionData(
+                DateTimeUtils.nowFormatted(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Server is busy, try again later",
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(overloadRetryAfter))
+                .body(data);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ExceptionData> rateLimitExceededException(RateLimitExceededException e,
+                                                                    HttpServletRequest request) {
+        log.warn("Rate limit exceeded: {}", e.getMessage());
+        ExceptionData data = new ExceptionData(
+                DateTimeUtils.nowFormatted(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too Many Requests",
+                e.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, retryAfterSeconds(e.getRetryAfter()))
+                .body(data);
+    }
+
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<ExceptionData> idempotencyKeyConflictException(IdempotencyKeyConflictException e,
+                                                                         HttpServletRequest request) {
+        log.warn("Idempotency key conflict: {}", e.getMessage());
+        ExceptionData data = new ExceptionData(
+                DateTimeUtils.nowFormatted(),
+                HttpStatus.CONFLICT.value(),
+                "Conflict",
+                e.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(data);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ExceptionData> idempotencyKeyMismatchException(IdempotencyKeyMismatchException e,
+                                                                         HttpServletRequest request) {
+        log.warn("Idempotency key mismatch: {}", e.getMessage());
+        ExceptionData data = new ExceptionData(
+                DateTimeUtils.nowFormatted(),
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                "Unprocessable Entity",
+                e.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(data);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ExceptionData> runtimeException(RuntimeException e,
                                                           HttpServletRequest request) {
@@ -142,4 +212,11 @@ public class RestExceptionHandler {
         );
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(data);
     }
+
+    /**
+     * Retry-After takes whole seconds: round up, and never send 0, which invites an immediate retry.
+     */
+    private static String retryAfterSeconds(Duration retryAfter) {
+        return String.valueOf(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+    }
 }
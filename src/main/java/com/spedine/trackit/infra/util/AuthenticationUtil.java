@@ -1,6 +1,8 @@
 package com.spedine.trackit.infra.util;
 
+import com.spedine.trackit.model.AuthenticatedUser;
 import com.spedine.trackit.model.User;
+import com.spedine.trackit.model.UserEntity;
 import com.spedine.trackit.service.UserService;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,7 +18,13 @@ public class AuthenticationUtil {
     }
 
     public User getCurrentUser() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        return userService.findByEmail(email);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.toDomain();
+        }
+        if (principal instanceof UserEntity userEntity) {
+            return userEntity.toDomain();
+        }
+        return userService.findByEmail(((UserDetails) principal).getUsername());
     }
 }
@@ -0,0 +1,24 @@
+package com.spedine.trackit.infra.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+public class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * SHA-256 of the UTF-8 bytes, URL-safe Base64 without padding (43 characters).
+     */
+    public static String sha256(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.spedine.trackit.model;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lightweight principal built from verified JWT claims, so authenticated
+ * requests don't need to load the user row.
+ */
+public record AuthenticatedUser(
+        UUID id,
+        String name,
+        String email,
+        ERole role
+) implements UserDetails {
+
+    public User toDomain() {
+        return new User(id, name, email, null, role, null, null);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.getAuthority()));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
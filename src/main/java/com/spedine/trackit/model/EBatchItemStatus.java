@@ -0,0 +1,9 @@
+package com.spedine.trackit.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "EBatchItemStatus", description = "Outcome of a single item in a batch operation")
+public enum EBatchItemStatus {
+    CREATED,
+    FAILED
+}
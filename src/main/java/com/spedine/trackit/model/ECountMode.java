@@ -0,0 +1,20 @@
+package com.spedine.trackit.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Locale;
+
+@Schema(name = "ECountMode", description = "How list endpoints compute totals (EXACT, NONE, ESTIMATE)")
+public enum ECountMode {
+    EXACT,
+    NONE,
+    ESTIMATE;
+
+    public static ECountMode from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid count mode: " + value + ". Use exact, none or estimate");
+        }
+    }
+}
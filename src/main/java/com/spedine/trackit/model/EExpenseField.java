@@ -0,0 +1,61 @@
+package com.spedine.trackit.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Schema(name = "EExpenseField", description = "Expense fields that can be requested with the fields parameter")
+public enum EExpenseField {
+    ID("id"),
+    AMOUNT("amount"),
+    DESCRIPTION("description"),
+    EXPENSE_DATE("expenseDate"),
+    CREATED_AT("createdAt"),
+    CATEGORY("category"),
+    CURRENCY("currency"),
+    PAYMENT_METHOD("paymentMethod");
+
+    public static final Set<EExpenseField> ALL = Collections.unmodifiableSet(EnumSet.allOf(EExpenseField.class));
+
+    /**
+     * Name of both the JSON property and the entity attribute.
+     */
+    private final String property;
+
+    EExpenseField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated list of property names, e.g. {@code amount,category,expenseDate}.
+     * A missing or blank list selects every field; blank entries are ignored, but a list made
+     * only of them (e.g. {@code " , "}) is rejected.
+     */
+    public static Set<EExpenseField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<EExpenseField> selected = EnumSet.noneOf(EExpenseField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.property.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown expense field: " + trimmed)));
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("At least one expense field is required");
+        }
+        return Collections.unmodifiableSet(selected);
+    }
+}
@@ -0,0 +1,13 @@
+package com.spedine.trackit.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "ERole", description = "User roles (USER, ADMIN)")
+public enum ERole {
+    USER,
+    ADMIN;
+
+    public String getAuthority() {
+        return "ROLE_" + name();
+    }
+}
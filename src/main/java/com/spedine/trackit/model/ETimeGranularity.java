@@ -0,0 +1,54 @@
+package com.spedine.trackit.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Locale;
+
+@Schema(name = "ETimeGranularity", description = "Size of the buckets of a time series (DAY, WEEK, MONTH)")
+public enum ETimeGranularity {
+    DAY("day", ChronoUnit.DAYS),
+    WEEK("week", ChronoUnit.WEEKS),
+    MONTH("month", ChronoUnit.MONTHS);
+
+    /**
+     * Field passed to date_trunc; weeks start on Monday.
+     */
+    private final String truncUnit;
+    private final ChronoUnit step;
+
+    ETimeGranularity(String truncUnit, ChronoUnit step) {
+        this.truncUnit = truncUnit;
+        this.step = step;
+    }
+
+    public String getTruncUnit() {
+        return truncUnit;
+    }
+
+    public ChronoUnit getStep() {
+        return step;
+    }
+
+    /**
+     * Start of the bucket holding the date, as date_trunc computes it.
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    public static ETimeGranularity from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Invalid granularity: " + value + ". Use day, week or month");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.spedine.trackit.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Locale;
+
+@Schema(name = "ETimeSeriesSplit", description = "Column that splits a time series into one series per value (CATEGORY, CURRENCY)")
+public enum ETimeSeriesSplit {
+    CATEGORY("category"),
+    CURRENCY("currency");
+
+    private final String column;
+
+    ETimeSeriesSplit(String column) {
+        this.column = column;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Parses the split parameter; blank means a single series.
+     */
+    public static ETimeSeriesSplit from(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid split: " + value + ". Use category or currency");
+        }
+    }
+}
@@ -15,6 +15,7 @@ public class Expense {
     private ECurrency currency;
     private EPaymentMethod paymentMethod;
     private User user;
+    private Long version;
 
     private Expense() {
     }
@@ -27,6 +28,15 @@ public class Expense {
     public Expense(UUID id, LocalDateTime createdAt, BigDecimal amount, String description,
                    LocalDateTime expenseDate, ECategory category, ECurrency currency,
                    EPaymentMethod paymentMethod, User user) {
+        this(id, createdAt, amount, description, expenseDate, category, currency, paymentMethod, user, null);
+    }
+
+    /**
+     * @param version persistence version; {@code null} for expenses that were never stored
+     */
+    public Expense(UUID id, LocalDateTime createdAt, BigDecimal amount, String description,
+                   LocalDateTime expenseDate, ECategory category, ECurrency currency,
+                   EPaymentMethod paymentMethod, User user, Long version) {
         this.id = (id != null) ? id : UUID.randomUUID();
         this.createdAt = (createdAt != null) ? createdAt : LocalDateTime.now();
 
@@ -37,27 +47,19 @@ public class Expense {
         setCurrency(currency);
         setPaymentMethod(paymentMethod);
         setUser(user);
+        this.version = version;
     }
 
     public void setAmount(BigDecimal amount) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Amount must be positive");
-        }
-        this.amount = amount;
+        this.amount = validAmount(amount);
     }
 
     public void setDescription(String description) {
-        if (description == null || description.trim().length() < 3 || description.length() > 255) {
-            throw new IllegalArgumentException("Description must be between 3 and 255 characters");
-        }
-        this.description = description;
+        this.description = validDescription(description);
     }
 
     public void setExpenseDate(LocalDateTime expenseDate) {
-        if (expenseDate == null || expenseDate.isAfter(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Expense date must be in the past or present");
-        }
-        this.expenseDate = expenseDate;
+        this.expenseDate = validExpenseDate(expenseDate);
     }
 
     public void setCategory(ECategory category) {
@@ -80,6 +82,27 @@ public class Expense {
         this.user = user;
     }
 
+    static BigDecimal validAmount(BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        return amount;
+    }
+
+    static String validDescription(String description) {
+        if (description == null || description.trim().length() < 3 || description.length() > 255) {
+            throw new IllegalArgumentException("Description must be between 3 and 255 characters");
+        }
+        return description;
+    }
+
+    static LocalDateTime validExpenseDate(LocalDateTime expenseDate) {
+        if (expenseDate == null || expenseDate.isAfter(LocalDateTime.now())) {
+            throw new IllegalArgumentException("Expense date must be in the past or present");
+        }
+        return expenseDate;
+    }
+
     public UUID getId() { return id; }
     public BigDecimal getAmount() { return amount; }
     public String getDescription() { return description; }
@@ -89,4 +112,5 @@ public class Expense {
     public ECurrency getCurrency() { return currency; }
     public EPaymentMethod getPaymentMethod() { return paymentMethod; }
     public User getUser() { return user; }
+    public Long getVersion() { return version; }
 }
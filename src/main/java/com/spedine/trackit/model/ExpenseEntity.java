@@ -34,12 +34,19 @@ public class ExpenseEntity {
     @ManyToOne(optional = false)
     private UserEntity user;
 
+    /**
+     * Null until the row is first persisted, which is how Spring Data tells a new expense
+     * apart from an existing one without a SELECT.
+     */
+    @Version
+    private Long version;
+
     protected ExpenseEntity() {
     }
 
     public ExpenseEntity(UUID id, BigDecimal amount, String description, LocalDateTime createdAt,
                          LocalDateTime expenseDate, ECategory category, ECurrency currency,
-                         EPaymentMethod paymentMethod, UserEntity user) {
+                         EPaymentMethod paymentMethod, UserEntity user, Long version) {
         this.id = id;
         this.amount = amount;
         this.description = description;
@@ -49,6 +56,7 @@ public class ExpenseEntity {
         this.currency = currency;
         this.paymentMethod = paymentMethod;
         this.user = user;
+        this.version = version;
     }
 
     public static ExpenseEntity fromDomain(Expense expense, UserEntity user) {
@@ -61,12 +69,20 @@ public class ExpenseEntity {
                 expense.getCategory(),
                 expense.getCurrency(),
                 expense.getPaymentMethod(),
-                user
+                user,
+                expense.getVersion()
         );
     }
 
     public Expense toDomain() {
-        return new Expense(id, createdAt, amount, description, expenseDate, category, currency, paymentMethod, user.toDomain());
+        return toDomain(user.toDomain());
+    }
+
+    /**
+     * Maps with an already known owner, so a lazy user reference is not initialized.
+     */
+    public Expense toDomain(User owner) {
+        return new Expense(id, createdAt, amount, description, expenseDate, category, currency, paymentMethod, owner, version);
     }
 
     public UUID getId() {
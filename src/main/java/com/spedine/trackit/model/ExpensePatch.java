@@ -0,0 +1,29 @@
+package com.spedine.trackit.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Partial change to an expense; {@code null} fields are left untouched. Present fields go
+ * through the same rules as {@link Expense}, so the change can be applied in the database
+ * without loading the expense first.
+ */
+public record ExpensePatch(
+        BigDecimal amount,
+        String description,
+        LocalDateTime expenseDate,
+        ECategory category,
+        ECurrency currency,
+        EPaymentMethod paymentMethod
+) {
+    public ExpensePatch {
+        if (amount != null) Expense.validAmount(amount);
+        if (description != null) Expense.validDescription(description);
+        if (expenseDate != null) Expense.validExpenseDate(expenseDate);
+    }
+
+    public boolean isEmpty() {
+        return amount == null && description == null && expenseDate == null
+                && category == null && currency == null && paymentMethod == null;
+    }
+}
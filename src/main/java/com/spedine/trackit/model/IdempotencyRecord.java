@@ -0,0 +1,18 @@
+package com.spedine.trackit.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Response of a request sent with an Idempotency-Key, kept so a retry with the same key gets
+ * the same response instead of repeating the request. The request hash tells a retry apart
+ * from a different request reusing the key.
+ */
+public record IdempotencyRecord(
+        UUID userId,
+        String key,
+        String requestHash,
+        String responseBody,
+        LocalDateTime createdAt
+) {
+}
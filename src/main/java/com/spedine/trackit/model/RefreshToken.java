@@ -0,0 +1,64 @@
+package com.spedine.trackit.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Opaque, single-use credential that can be exchanged for a new access token. Every refresh
+ * rotates it within the same session; only a hash of the raw value is stored.
+ */
+public class RefreshToken {
+
+    private UUID id;
+    private User user;
+    private UUID sessionId;
+    private String tokenHash;
+    private LocalDateTime expiresAt;
+    private LocalDateTime usedAt;
+    private LocalDateTime revokedAt;
+    private LocalDateTime createdAt;
+
+    private RefreshToken() {
+    }
+
+    public RefreshToken(User user, UUID sessionId, String tokenHash, LocalDateTime expiresAt) {
+        this(null, user, sessionId, tokenHash, expiresAt, null, null, null);
+    }
+
+    public RefreshToken(UUID id, User user, UUID sessionId, String tokenHash, LocalDateTime expiresAt,
+                        LocalDateTime usedAt, LocalDateTime revokedAt, LocalDateTime createdAt) {
+        if (user == null) throw new IllegalArgumentException("User cannot be null");
+        if (sessionId == null) throw new IllegalArgumentException("Session ID cannot be null");
+        if (tokenHash == null) throw new IllegalArgumentException("Token hash cannot be null");
+        if (expiresAt == null) throw new IllegalArgumentException("Expiration cannot be null");
+        this.id = id != null ? id : UUID.randomUUID();
+        this.user = user;
+        this.sessionId = sessionId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+        this.usedAt = usedAt;
+        this.revokedAt = revokedAt;
+        this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return !expiresAt.isAfter(now);
+    }
+
+    /**
+     * A token that was already rotated or whose session was revoked; presenting it again
+     * means it leaked.
+     */
+    public boolean isSpent() {
+        return usedAt != null || revokedAt != null;
+    }
+
+    public UUID getId() { return id; }
+    public User getUser() { return user; }
+    public UUID getSessionId() { return sessionId; }
+    public String getTokenHash() { return tokenHash; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public LocalDateTime getUsedAt() { return usedAt; }
+    public LocalDateTime getRevokedAt() { return revokedAt; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,67 @@
+package com.spedine.trackit.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshTokenEntity {
+
+    @Id
+    private UUID id;
+
+    @ManyToOne(optional = false)
+    private UserEntity user;
+
+    private UUID sessionId;
+
+    private String tokenHash;
+
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime usedAt;
+
+    private LocalDateTime revokedAt;
+
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+
+    protected RefreshTokenEntity() {
+    }
+
+    public RefreshTokenEntity(UUID id, UserEntity user, UUID sessionId, String tokenHash, LocalDateTime expiresAt,
+                              LocalDateTime usedAt, LocalDateTime revokedAt, LocalDateTime createdAt) {
+        this.id = id;
+        this.user = user;
+        this.sessionId = sessionId;
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+        this.usedAt = usedAt;
+        this.revokedAt = revokedAt;
+        this.createdAt = createdAt;
+    }
+
+    public static RefreshTokenEntity fromDomain(RefreshToken token, UserEntity user) {
+        return new RefreshTokenEntity(
+                token.getId(),
+                user,
+                token.getSessionId(),
+                token.getTokenHash(),
+                token.getExpiresAt(),
+                token.getUsedAt(),
+                token.getRevokedAt(),
+                token.getCreatedAt()
+        );
+    }
+
+    public RefreshToken toDomain() {
+        return new RefreshToken(id, user.toDomain(), sessionId, tokenHash, expiresAt, usedAt, revokedAt, createdAt);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
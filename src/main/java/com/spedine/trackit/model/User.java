@@ -13,8 +13,12 @@ public class User {
 
     private String password;
 
+    private ERole role;
+
     private LocalDateTime createdAt;
 
+    private Long version;
+
     private User() {
     }
 
@@ -23,11 +27,20 @@ public class User {
     }
 
     public User(UUID id, String name, String email, String password, LocalDateTime createdAt) {
+        this(id, name, email, password, null, createdAt, null);
+    }
+
+    /**
+     * @param version persistence version; {@code null} for users that were never stored
+     */
+    public User(UUID id, String name, String email, String password, ERole role, LocalDateTime createdAt, Long version) {
         this.id = id != null ? id : UUID.randomUUID();
         this.name = name;
         this.email = email;
         this.password = password;
+        this.role = role != null ? role : ERole.USER;
         this.createdAt = createdAt != null ? createdAt : LocalDateTime.now();
+        this.version = version;
     }
 
     public UUID getId() {
@@ -54,7 +67,15 @@ public class User {
         this.password = password;
     }
 
+    public ERole getRole() {
+        return role;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
 }
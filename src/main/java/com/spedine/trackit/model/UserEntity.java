@@ -3,6 +3,7 @@ package com.spedine.trackit.model;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
@@ -26,21 +27,35 @@ public class UserEntity implements UserDetails {
     @Column(nullable = false)
     private String password;
 
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ERole role;
+
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "user")
     private List<ExpenseEntity> expenses;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    /**
+     * Null until the row is first persisted, which is how Spring Data tells a new user
+     * apart from an existing one without a SELECT.
+     */
+    @Version
+    private Long version;
+
     protected UserEntity() {
     }
 
-    public UserEntity(UUID id, String name, String email, String password, LocalDateTime createdAt) {
+    public UserEntity(UUID id, String name, String email, String password, ERole role, LocalDateTime createdAt,
+                      Long version) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.password = password;
+        this.role = role;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     public static UserEntity fromDomain(User user) {
@@ -49,7 +64,9 @@ public class UserEntity implements UserDetails {
                 user.getName(),
                 user.getEmail(),
                 user.getPassword(),
-                user.getCreatedAt()
+                user.getRole(),
+                user.getCreatedAt(),
+                user.getVersion()
         );
     }
 
@@ -59,7 +76,9 @@ public class UserEntity implements UserDetails {
                 name,
                 email,
                 password,
-                createdAt
+                role,
+                createdAt,
+                version
         );
     }
 
@@ -73,7 +92,7 @@ public class UserEntity implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        return List.of(new SimpleGrantedAuthority(role.getAuthority()));
     }
 
     public String getPassword() {
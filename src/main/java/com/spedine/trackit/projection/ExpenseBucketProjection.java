@@ -0,0 +1,10 @@
+package com.spedine.trackit.projection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Totals of one time bucket, for one series value when the series is split (null otherwise).
+ */
+public record ExpenseBucketProjection(LocalDate bucket, String series, BigDecimal total, long count) {
+}
@@ -0,0 +1,18 @@
+package com.spedine.trackit.projection;
+
+import com.spedine.trackit.dto.PaymentMethodSummary;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Every aggregate of the expense summary, computed together from one scan of the expenses.
+ */
+public record ExpenseSummaryProjection(
+        List<ExpenseCurrencyProjection> totalsByCurrency,
+        List<ExpenseCategoryProjection> totalsByCategory,
+        PaymentMethodSummary mostUsedPaymentMethod,
+        BigDecimal total,
+        int count
+) {
+}
@@ -0,0 +1,22 @@
+package com.spedine.trackit.repository;
+
+import java.util.UUID;
+
+/**
+ * Per-user counter that moves forward every time the user's expenses change, so readers can
+ * tell whether anything changed without querying the expenses.
+ */
+public interface ExpenseChangeVersionRepository {
+
+    /**
+     * @return the current version, 0 when the user's expenses never changed
+     */
+    long findByUserId(UUID userId);
+
+    /**
+     * Must be called after the change is written, otherwise a concurrent reader could pair
+     * the new version with the old data. Calling it in the write's transaction keeps it behind
+     * the user lock the write took, so two first writes cannot both insert the version row.
+     */
+    void increment(UUID userId);
+}
@@ -0,0 +1,76 @@
+package com.spedine.trackit.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Serves versions from memory so conditional reads skip the database. Local writes drop the
+ * cached version; a write made on another node is seen here once the TTL expires, which is
+ * the longest a stale 304 or cached summary can be served.
+ */
+@Repository
+class ExpenseChangeVersionRepositoryImpl implements ExpenseChangeVersionRepository {
+
+    private static final String SELECT_VERSION_SQL = "SELECT version FROM expense_change_versions WHERE user_id = ?";
+
+    /**
+     * Standard MERGE, as for the daily totals. A single statement never has to recover from a
+     * unique violation, which PostgreSQL cannot do inside the caller's transaction.
+     */
+    private static final String INCREMENT_VERSION_SQL = """
+            MERGE INTO expense_change_versions v
+            USING (SELECT CAST(? AS UUID) AS user_id) s
+            ON v.user_id = s.user_id
+            WHEN MATCHED THEN
+                UPDATE SET version = v.version + 1
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, version) VALUES (s.user_id, 1)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<UUID, Long> versions;
+
+    public ExpenseChangeVersionRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                              @Value("${expenses.change-version.ttl:5s}") Duration ttl,
+                                              @Value("${expenses.change-version.maximum-size:10000}") long maximumSize,
+                                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "expenses.change-versions");
+    }
+
+    @Override
+    public long findByUserId(UUID userId) {
+        return versions.get(userId, id -> jdbcTemplate.query(SELECT_VERSION_SQL,
+                rs -> rs.next() ? rs.getLong(1) : 0L, id));
+    }
+
+    @Override
+    public void increment(UUID userId) {
+        jdbcTemplate.update(INCREMENT_VERSION_SQL, userId);
+        versions.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // a reader may have cached the old version again before this transaction committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.invalidate(userId);
+                }
+            });
+        }
+    }
+}
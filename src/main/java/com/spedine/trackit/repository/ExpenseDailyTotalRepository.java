@@ -0,0 +1,39 @@
+package com.spedine.trackit.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Count and sum of expenses per user, day, category, currency and payment method, so
+ * summaries over whole days read one row per day and combination instead of every expense.
+ * The totals are adjusted by deltas in the same transaction as each expense write.
+ */
+public interface ExpenseDailyTotalRepository {
+
+    /**
+     * Locks the user's row until the transaction ends. Every write to the user's expenses takes
+     * it before anything else, so the deltas are computed from committed rows that no other
+     * transaction is changing, and a rebuild never interleaves with a write.
+     */
+    void lock(UUID userId);
+
+    /**
+     * Adds the expenses, as currently stored, to the totals. Call after inserting or changing them.
+     */
+    void addExpenses(UUID userId, Collection<UUID> expenseIds);
+
+    /**
+     * Removes the expenses, as currently stored, from the totals. Call before deleting or changing them.
+     */
+    void removeExpenses(UUID userId, Collection<UUID> expenseIds);
+
+    /**
+     * Recomputes every total of the user from the expenses, holding the user's lock.
+     *
+     * @return number of total rows written
+     */
+    int rebuild(UUID userId);
+
+    List<UUID> findUserIds();
+}
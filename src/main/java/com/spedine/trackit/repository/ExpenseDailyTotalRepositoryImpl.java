@@ -0,0 +1,106 @@
+package com.spedine.trackit.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+class ExpenseDailyTotalRepositoryImpl implements ExpenseDailyTotalRepository {
+
+    /**
+     * Standard MERGE, supported by PostgreSQL 15+ and H2. The deltas are aggregated from the
+     * expenses themselves, so callers only pass IDs; a total that drops to zero is removed.
+     */
+    private static final String MERGE_DELTAS_SQL = """
+            MERGE INTO expense_daily_totals t
+            USING (
+                SELECT user_id, CAST(expense_date AS DATE) AS expense_day, category, currency, payment_method,
+                       CAST(:sign AS INTEGER) * COUNT(*) AS expense_count, CAST(:sign AS INTEGER) * SUM(amount) AS total_amount
+                FROM expenses
+                WHERE user_id = :userId AND id IN (:ids)
+                GROUP BY user_id, CAST(expense_date AS DATE), category, currency, payment_method
+            ) d
+            ON t.user_id = d.user_id AND t.expense_day = d.expense_day AND t.category = d.category
+                AND t.currency = d.currency AND t.payment_method = d.payment_method
+            WHEN MATCHED AND t.expense_count + d.expense_count = 0 THEN
+                DELETE
+            WHEN MATCHED THEN
+                UPDATE SET expense_count = t.expense_count + d.expense_count,
+                           total_amount = t.total_amount + d.total_amount
+            WHEN NOT MATCHED THEN
+                INSERT (user_id, expense_day, category, currency, payment_method, expense_count, total_amount)
+                VALUES (d.user_id, d.expense_day, d.category, d.currency, d.payment_method, d.expense_count, d.total_amount)
+            """;
+
+    /**
+     * FOR NO KEY UPDATE does not conflict with the FOR KEY SHARE locks PostgreSQL takes to check
+     * foreign keys, so inserts that reference the user (refresh tokens on login) don't wait
+     * behind a long bulk write. H2 only supports FOR UPDATE.
+     */
+    private static final String LOCK_USER_SQL = "SELECT id FROM users WHERE id = :userId FOR NO KEY UPDATE";
+    private static final String LOCK_USER_PORTABLE_SQL = "SELECT id FROM users WHERE id = :userId FOR UPDATE";
+
+    private static final String DELETE_USER_TOTALS_SQL = "DELETE FROM expense_daily_totals WHERE user_id = :userId";
+
+    private static final String INSERT_USER_TOTALS_SQL = """
+            INSERT INTO expense_daily_totals (user_id, expense_day, category, currency, payment_method, expense_count, total_amount)
+            SELECT user_id, CAST(expense_date AS DATE), category, currency, payment_method, COUNT(*), SUM(amount)
+            FROM expenses
+            WHERE user_id = :userId
+            GROUP BY user_id, CAST(expense_date AS DATE), category, currency, payment_method
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final String lockUserSql;
+
+    public ExpenseDailyTotalRepositoryImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                           @Value("${expenses.user-lock.no-key-update:true}") boolean noKeyUpdate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lockUserSql = noKeyUpdate ? LOCK_USER_SQL : LOCK_USER_PORTABLE_SQL;
+    }
+
+    @Override
+    public void lock(UUID userId) {
+        jdbcTemplate.queryForList(lockUserSql, new MapSqlParameterSource("userId", userId), UUID.class);
+    }
+
+    @Override
+    public void addExpenses(UUID userId, Collection<UUID> expenseIds) {
+        mergeDeltas(userId, expenseIds, 1);
+    }
+
+    @Override
+    public void removeExpenses(UUID userId, Collection<UUID> expenseIds) {
+        mergeDeltas(userId, expenseIds, -1);
+    }
+
+    private void mergeDeltas(UUID userId, Collection<UUID> expenseIds, int sign) {
+        if (expenseIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(MERGE_DELTAS_SQL, new MapSqlParameterSource()
+                .addValue("sign", sign)
+                .addValue("userId", userId)
+                .addValue("ids", expenseIds));
+    }
+
+    @Override
+    @Transactional
+    public int rebuild(UUID userId) {
+        lock(userId);
+        MapSqlParameterSource parameters = new MapSqlParameterSource("userId", userId);
+        jdbcTemplate.update(DELETE_USER_TOTALS_SQL, parameters);
+        return jdbcTemplate.update(INSERT_USER_TOTALS_SQL, parameters);
+    }
+
+    @Override
+    public List<UUID> findUserIds() {
+        return jdbcTemplate.getJdbcTemplate().queryForList("SELECT id FROM users", UUID.class);
+    }
+}
@@ -1,33 +1,110 @@
 package com.spedine.trackit.repository;
 
+import com.spedine.trackit.dto.ExpenseCursor;
 import com.spedine.trackit.dto.ExpenseFilter;
-import com.spedine.trackit.dto.PaymentMethodSummary;
+import com.spedine.trackit.dto.ExpenseResponse;
+import com.spedine.trackit.model.EExpenseField;
+import com.spedine.trackit.model.ETimeGranularity;
+import com.spedine.trackit.model.ETimeSeriesSplit;
 import com.spedine.trackit.model.Expense;
+import com.spedine.trackit.model.ExpensePatch;
 import com.spedine.trackit.model.User;
-import com.spedine.trackit.projection.ExpenseCategoryProjection;
-import com.spedine.trackit.projection.ExpenseCountAndTotalProjection;
-import com.spedine.trackit.projection.ExpenseCurrencyProjection;
+import com.spedine.trackit.projection.ExpenseBucketProjection;
+import com.spedine.trackit.projection.ExpenseSummaryProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface ExpenseRepository {
     Expense save(Expense expense);
 
-    Expense findByIdAndUser_Id(UUID id, UUID userId);
+    /**
+     * Inserts new expenses of a single user in one transaction, flushed in JDBC batches.
+     */
+    void saveAll(List<Expense> expenses);
 
-    Page<Expense> findAll(User user, Pageable pageable, ExpenseFilter filter);
+    /**
+     * @throws jakarta.persistence.EntityNotFoundException when the user has no such expense
+     */
+    ExpenseResponse findByIdAndUser_Id(UUID id, UUID userId, Set<EExpenseField> fields);
 
-    void delete(Expense expense);
+    /**
+     * Reads the user's expenses among the given IDs with one query, in no particular order.
+     */
+    List<ExpenseResponse> findAllByIdInAndUser_Id(Collection<UUID> ids, UUID userId, Set<EExpenseField> fields);
 
-    ExpenseCountAndTotalProjection countAndSumTotalAmount(UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Applies the present fields of the patch with a single UPDATE scoped to the owner and
+     * re-reads the row without joining the user. The expense is moved between daily totals
+     * under the user's lock, so a patch costs five statements in all.
+     *
+     * @throws jakarta.persistence.EntityNotFoundException when the user has no such expense
+     */
+    ExpenseResponse update(UUID id, UUID userId, ExpensePatch patch);
 
-    List<ExpenseCategoryProjection> groupByExpenseCategoryAndSumAmount(UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Read path: selects only the requested response columns, without joining users. Fields
+     * that were not requested are null.
+     */
+    Page<ExpenseResponse> findAll(User user, Pageable pageable, ExpenseFilter filter, Set<EExpenseField> fields);
 
-    PaymentMethodSummary getMostUsedPaymentMethod(UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Same page as {@link #findAll} without the count query.
+     */
+    Slice<ExpenseResponse> findSlice(User user, Pageable pageable, ExpenseFilter filter, Set<EExpenseField> fields);
 
-    List<ExpenseCurrencyProjection> groupByCurrencyAndSumAmount(UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+    /**
+     * Number of expenses matching the filter, possibly a little stale.
+     */
+    long estimateCount(UUID userId, ExpenseFilter filter);
+
+    /**
+     * Keyset page in (expenseDate DESC, id DESC) order, seeking past the cursor instead of
+     * skipping rows, so every page costs the same.
+     *
+     * @param after position to continue from; {@code null} for the first page
+     */
+    List<ExpenseResponse> findAfter(UUID userId, ExpenseFilter filter, ExpenseCursor after, int limit);
+
+    /**
+     * @throws jakarta.persistence.EntityNotFoundException when the user has no such expense
+     */
+    void deleteByIdAndUser_Id(UUID id, UUID userId);
+
+    /**
+     * Deletes every expense of the user matching the filter, in chunks committed one at a
+     * time so a large cleanup does not hold locks for its whole duration.
+     *
+     * @return number of deleted expenses
+     */
+    long deleteAll(UUID userId, ExpenseFilter filter);
+
+    /**
+     * Applies the patch to every expense of the user matching the filter, with one UPDATE per
+     * chunk committed one at a time.
+     *
+     * @return number of updated expenses
+     */
+    long updateAll(UUID userId, ExpenseFilter filter, ExpensePatch patch);
+
+    /**
+     * Totals, breakdowns by currency and category and the most used payment method of the
+     * user's expenses in the inclusive range, from a single query. Whole days are read from
+     * the daily totals, so the cost grows with the number of days rather than of expenses.
+     */
+    ExpenseSummaryProjection summarize(UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Totals of the user's expenses matching the filter per time bucket, and per category or
+     * currency when split, from a single grouped query ordered by bucket and series. Buckets
+     * without expenses are not returned.
+     */
+    List<ExpenseBucketProjection> timeSeries(UUID userId, ExpenseFilter filter, ETimeGranularity granularity,
+                                             ETimeSeriesSplit split);
 }
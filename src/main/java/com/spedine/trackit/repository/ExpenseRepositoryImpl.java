@@ -1,79 +1,573 @@
 package com.spedine.trackit.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spedine.trackit.dto.ExpenseCursor;
 import com.spedine.trackit.dto.ExpenseFilter;
+import com.spedine.trackit.dto.ExpenseResponse;
 import com.spedine.trackit.dto.PaymentMethodSummary;
+import com.spedine.trackit.model.ECategory;
+import com.spedine.trackit.model.ECurrency;
+import com.spedine.trackit.model.EExpenseField;
+import com.spedine.trackit.model.EPaymentMethod;
+import com.spedine.trackit.model.ETimeGranularity;
+import com.spedine.trackit.model.ETimeSeriesSplit;
 import com.spedine.trackit.model.Expense;
 import com.spedine.trackit.model.ExpenseEntity;
+import com.spedine.trackit.model.ExpensePatch;
 import com.spedine.trackit.model.User;
 import com.spedine.trackit.model.UserEntity;
+import com.spedine.trackit.projection.ExpenseBucketProjection;
 import com.spedine.trackit.projection.ExpenseCategoryProjection;
-import com.spedine.trackit.projection.ExpenseCountAndTotalProjection;
 import com.spedine.trackit.projection.ExpenseCurrencyProjection;
+import com.spedine.trackit.projection.ExpenseSummaryProjection;
 import com.spedine.trackit.specification.ExpenseSpecification;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
 class ExpenseRepositoryImpl implements ExpenseRepository {
 
+    /**
+     * Rows to summarize: whole days come from the daily totals, only the partial days at the
+     * edges of the range are read from the expenses.
+     */
+    private static final String SUMMARY_ROWS_SQL = """
+            SELECT category, currency, payment_method, SUM(expense_count) AS count, SUM(total_amount) AS total
+            FROM (
+                SELECT category, currency, payment_method, expense_count, total_amount
+                FROM expense_daily_totals
+                WHERE user_id = ? AND expense_day BETWEEN ? AND ?
+                UNION ALL
+                SELECT category, currency, payment_method, 1, amount
+                FROM expenses
+                WHERE user_id = ?
+                  AND ((expense_date >= ? AND expense_date < ?) OR (expense_date >= ? AND expense_date <= ?))
+            ) summary_rows
+            """;
+
+    /**
+     * One pass for every section of the summary: each grouping set yields the rows of one
+     * section. The totals are the sum of the category rows.
+     */
+    private static final String SUMMARY_GROUPING_SETS_SQL = SUMMARY_ROWS_SQL
+            + "GROUP BY GROUPING SETS ((category), (currency), (payment_method))";
+
+    /**
+     * Same single pass for databases without grouping sets (H2): one row per combination,
+     * folded into the sections in memory.
+     */
+    private static final String SUMMARY_GROUP_BY_SQL = SUMMARY_ROWS_SQL
+            + "GROUP BY category, currency, payment_method";
+
+    /**
+     * Bucketed totals; the placeholders take the date_trunc unit, the optional series column
+     * and the filter conditions.
+     */
+    private static final String TIME_SERIES_SQL = """
+            SELECT date_trunc('%1$s', expense_date) AS bucket%2$s, SUM(amount) AS total, COUNT(*) AS count
+            FROM expenses
+            WHERE %3$s
+            GROUP BY date_trunc('%1$s', expense_date)%2$s
+            ORDER BY bucket%2$s
+            """;
+
     private final ExpenseJpaRepository jpaRepository;
     private final UserJpaRepository userJpaRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExpenseDailyTotalRepository dailyTotals;
+    private final boolean summaryGroupingSets;
+    private final TransactionTemplate transactionTemplate;
+    private final int bulkChunkSize;
 
-    public ExpenseRepositoryImpl(ExpenseJpaRepository jpaRepository, UserJpaRepository userJpaRepository) {
+    /**
+     * Recent exact counts per user and filter, served as estimates so paging through the same
+     * list does not count it again on every page.
+     */
+    private final Cache<CountKey, Long> countEstimates;
+
+    public ExpenseRepositoryImpl(ExpenseJpaRepository jpaRepository, UserJpaRepository userJpaRepository,
+                                 EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                 JdbcTemplate jdbcTemplate, ExpenseDailyTotalRepository dailyTotals,
+                                 @Value("${expenses.summary.grouping-sets:true}") boolean summaryGroupingSets,
+                                 @Value("${expenses.bulk.chunk-size:1000}") int bulkChunkSize,
+                                 @Value("${expenses.count-estimate.ttl:1m}") Duration countEstimateTtl,
+                                 @Value("${expenses.count-estimate.maximum-size:10000}") long countEstimateMaximumSize,
+                                 MeterRegistry meterRegistry) {
         this.jpaRepository = jpaRepository;
         this.userJpaRepository = userJpaRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dailyTotals = dailyTotals;
+        this.summaryGroupingSets = summaryGroupingSets;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bulkChunkSize = bulkChunkSize;
+        this.countEstimates = Caffeine.newBuilder()
+                .maximumSize(countEstimateMaximumSize)
+                .expireAfterWrite(countEstimateTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, countEstimates, "expenses.count-estimates");
     }
 
     @Override
+    @Transactional
     public Expense save(Expense expense) {
+        dailyTotals.lock(expense.getUser().getId());
+        if (expense.getVersion() != null) {
+            // a stored expense is counted already: take out its current values first
+            dailyTotals.removeExpenses(expense.getUser().getId(), List.of(expense.getId()));
+        }
         UserEntity user = userJpaRepository.getReferenceById(expense.getUser().getId());
         ExpenseEntity expenseEntity = ExpenseEntity.fromDomain(expense, user);
-        return jpaRepository.save(expenseEntity).toDomain();
+        Expense saved = jpaRepository.save(expenseEntity).toDomain(expense.getUser());
+        // the totals are computed from the stored row, which only exists once flushed
+        entityManager.flush();
+        dailyTotals.addExpenses(expense.getUser().getId(), List.of(saved.getId()));
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void saveAll(List<Expense> expenses) {
+        if (expenses.isEmpty()) {
+            return;
+        }
+        UserEntity user = userJpaRepository.getReferenceById(expenses.get(0).getUser().getId());
+        dailyTotals.lock(user.getId());
+        jpaRepository.saveAll(expenses.stream()
+                .map(expense -> ExpenseEntity.fromDomain(expense, user))
+                .toList());
+        entityManager.flush();
+        dailyTotals.addExpenses(user.getId(), expenses.stream().map(Expense::getId).toList());
     }
 
     @Override
-    public Expense findByIdAndUser_Id(UUID id, UUID userId) {
-        return jpaRepository.findByIdAndUser_Id(id, userId)
-                .orElseThrow(() -> new EntityNotFoundException("Expense not found for id: " + id))
-                .toDomain();
+    public ExpenseResponse findByIdAndUser_Id(UUID id, UUID userId, Set<EExpenseField> fields) {
+        Specification<ExpenseEntity> specification = (root, query, cb) -> cb.and(
+                cb.equal(root.get("id"), id),
+                cb.equal(root.get("user").get("id"), userId)
+        );
+        return selectResponses(specification, fields, Sort.unsorted(), 0, 1).stream()
+                .findFirst()
+                .orElseThrow(() -> expenseNotFound(id));
     }
 
     @Override
-    public Page<Expense> findAll(User user, Pageable pageable, ExpenseFilter filter) {
+    @Transactional
+    public ExpenseResponse update(UUID id, UUID userId, ExpensePatch patch) {
+        if (!patch.isEmpty()) {
+            dailyTotals.lock(userId);
+            dailyTotals.removeExpenses(userId, List.of(id));
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaUpdate<ExpenseEntity> update = cb.createCriteriaUpdate(ExpenseEntity.class);
+            Root<ExpenseEntity> root = update.from(ExpenseEntity.class);
+            applyPatch(update, root, cb, patch);
+            update.where(
+                    cb.equal(root.get("id"), id),
+                    cb.equal(root.get("user").get("id"), userId)
+            );
+            if (entityManager.createQuery(update).executeUpdate() == 0) {
+                throw expenseNotFound(id);
+            }
+            dailyTotals.addExpenses(userId, List.of(id));
+        }
+        return jpaRepository.findResponseByIdAndUserId(id, userId)
+                .orElseThrow(() -> expenseNotFound(id));
+    }
+
+    @Override
+    public List<ExpenseResponse> findAllByIdInAndUser_Id(Collection<UUID> ids, UUID userId, Set<EExpenseField> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Specification<ExpenseEntity> specification = (root, query, cb) -> cb.and(
+                root.get("id").in(ids),
+                cb.equal(root.get("user").get("id"), userId)
+        );
+        return selectResponses(specification, fields, Sort.unsorted(), 0, ids.size());
+    }
+
+    @Override
+    public Page<ExpenseResponse> findAll(User user, Pageable pageable, ExpenseFilter filter, Set<EExpenseField> fields) {
         Specification<ExpenseEntity> specification = ExpenseSpecification.withFilters(user.getId(), filter);
-        return jpaRepository.findAll(specification, pageable).map(ExpenseEntity::toDomain);
+        List<ExpenseResponse> content = pageable.isPaged()
+                ? selectResponses(specification, fields, pageable.getSort(), pageable.getOffset(), pageable.getPageSize())
+                : selectResponses(specification, fields, pageable.getSort(), 0, Integer.MAX_VALUE);
+        return PageableExecutionUtils.getPage(content, pageable, () -> jpaRepository.count(specification));
     }
 
     @Override
-    public void delete(Expense expense) {
-        UserEntity user = userJpaRepository.getReferenceById(expense.getUser().getId());
-        jpaRepository.delete(ExpenseEntity.fromDomain(expense, user));
+    public Slice<ExpenseResponse> findSlice(User user, Pageable pageable, ExpenseFilter filter, Set<EExpenseField> fields) {
+        Specification<ExpenseEntity> specification = ExpenseSpecification.withFilters(user.getId(), filter);
+        // one extra row tells whether another page exists without counting
+        List<ExpenseResponse> content = selectResponses(specification, fields, pageable.getSort(),
+                pageable.getOffset(), pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public long estimateCount(UUID userId, ExpenseFilter filter) {
+        return countEstimates.get(new CountKey(userId, filter),
+                key -> jpaRepository.count(ExpenseSpecification.withFilters(key.userId(), key.filter())));
     }
 
     @Override
-    public ExpenseCountAndTotalProjection countAndSumTotalAmount(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        return jpaRepository.countAndSumTotalAmount(userId, startDate, endDate);
+    public List<ExpenseResponse> findAfter(UUID userId, ExpenseFilter filter, ExpenseCursor after, int limit) {
+        Specification<ExpenseEntity> specification = ExpenseSpecification.withFilters(userId, filter);
+        if (after != null) {
+            specification = specification.and((root, query, cb) -> {
+                Path<LocalDateTime> expenseDate = root.get("expenseDate");
+                Path<UUID> id = root.get("id");
+                return cb.or(
+                        cb.lessThan(expenseDate, after.expenseDate()),
+                        cb.and(cb.equal(expenseDate, after.expenseDate()), cb.lessThan(id, after.id()))
+                );
+            });
+        }
+        return selectResponses(specification, EExpenseField.ALL, Sort.by(Sort.Direction.DESC, "expenseDate", "id"), 0, limit);
+    }
+
+    /**
+     * Reads only the requested columns straight into {@link ExpenseResponse}, leaving the others
+     * null: no users join, no entities in the persistence context and no intermediate domain
+     * objects.
+     */
+    private List<ExpenseResponse> selectResponses(Specification<ExpenseEntity> specification, Set<EExpenseField> fields,
+                                                  Sort sort, long offset, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<ExpenseEntity> root = query.from(ExpenseEntity.class);
+        query.multiselect(fields.stream()
+                        .<Selection<?>>map(field -> root.get(field.getProperty()).alias(field.getProperty()))
+                        .toList())
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query)
+                .setFirstResult(Math.toIntExact(offset))
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(tuple -> toResponse(tuple, fields))
+                .toList();
+    }
+
+    private static ExpenseResponse toResponse(Tuple tuple, Set<EExpenseField> fields) {
+        return new ExpenseResponse(
+                value(tuple, fields, EExpenseField.ID, UUID.class),
+                value(tuple, fields, EExpenseField.AMOUNT, BigDecimal.class),
+                value(tuple, fields, EExpenseField.DESCRIPTION, String.class),
+                value(tuple, fields, EExpenseField.EXPENSE_DATE, LocalDateTime.class),
+                value(tuple, fields, EExpenseField.CREATED_AT, LocalDateTime.class),
+                value(tuple, fields, EExpenseField.CATEGORY, ECategory.class),
+                value(tuple, fields, EExpenseField.CURRENCY, ECurrency.class),
+                value(tuple, fields, EExpenseField.PAYMENT_METHOD, EPaymentMethod.class)
+        );
+    }
+
+    private static <T> T value(Tuple tuple, Set<EExpenseField> fields, EExpenseField field, Class<T> type) {
+        return fields.contains(field) ? tuple.get(field.getProperty(), type) : null;
     }
 
     @Override
-    public List<ExpenseCategoryProjection> groupByExpenseCategoryAndSumAmount(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        return jpaRepository.groupByExpenseCategoryAndSumAmount(userId, startDate, endDate);
+    @Transactional
+    public void deleteByIdAndUser_Id(UUID id, UUID userId) {
+        dailyTotals.lock(userId);
+        dailyTotals.removeExpenses(userId, List.of(id));
+        if (jpaRepository.deleteByIdAndUserId(id, userId) == 0) {
+            throw expenseNotFound(id);
+        }
     }
 
     @Override
-    public PaymentMethodSummary getMostUsedPaymentMethod(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        return jpaRepository.getMostUsedPaymentMethod(userId, startDate, endDate);
+    public long deleteAll(UUID userId, ExpenseFilter filter) {
+        Specification<ExpenseEntity> specification = ExpenseSpecification.withFilters(userId, filter);
+        long deleted = 0;
+        BulkChunk chunk;
+        do {
+            chunk = Objects.requireNonNull(transactionTemplate.execute(status -> {
+                // taken before selecting, so the chunk cannot change before its totals are removed
+                dailyTotals.lock(userId);
+                List<UUID> ids = findIds(specification, Sort.unsorted(), bulkChunkSize);
+                if (ids.isEmpty()) {
+                    return new BulkChunk(ids, 0);
+                }
+                dailyTotals.removeExpenses(userId, ids);
+                return new BulkChunk(ids, jpaRepository.deleteAllByIdIn(ids));
+            }));
+            deleted += chunk.affected();
+            // a chunk can delete fewer rows than it selected, so only an empty selection ends the loop
+        } while (!chunk.ids().isEmpty());
+        return deleted;
     }
 
     @Override
-    public List<ExpenseCurrencyProjection> groupByCurrencyAndSumAmount(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
-        return jpaRepository.groupByCurrencyAndSumAmount(userId, startDate, endDate);
+    public long updateAll(UUID userId, ExpenseFilter filter, ExpensePatch patch) {
+        if (patch.isEmpty()) {
+            return 0;
+        }
+        Specification<ExpenseEntity> specification = ExpenseSpecification.withFilters(userId, filter);
+        long updated = 0;
+        UUID after = null;
+        BulkChunk chunk;
+        do {
+            // updated rows may still match the filter, so chunks move forward by id instead
+            Specification<ExpenseEntity> chunkSpecification = after == null
+                    ? specification
+                    : specification.and(idGreaterThan(after));
+            chunk = Objects.requireNonNull(transactionTemplate.execute(status ->
+                    updateChunk(userId, chunkSpecification, specification, patch)));
+            updated += chunk.affected();
+            if (!chunk.ids().isEmpty()) {
+                after = chunk.ids().get(chunk.ids().size() - 1);
+            }
+        } while (chunk.ids().size() == bulkChunkSize);
+        return updated;
+    }
+
+    private BulkChunk updateChunk(UUID userId, Specification<ExpenseEntity> chunkSpecification,
+                                    Specification<ExpenseEntity> specification, ExpensePatch patch) {
+        dailyTotals.lock(userId);
+        List<UUID> ids = findIds(chunkSpecification, Sort.by("id"), bulkChunkSize);
+        if (ids.isEmpty()) {
+            return new BulkChunk(ids, 0);
+        }
+        dailyTotals.removeExpenses(userId, ids);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<ExpenseEntity> update = cb.createCriteriaUpdate(ExpenseEntity.class);
+        Root<ExpenseEntity> root = update.from(ExpenseEntity.class);
+        applyPatch(update, root, cb, patch);
+        // the filter is checked again in case a row changed since it was selected
+        update.where(root.get("id").in(ids), specification.toPredicate(root, null, cb));
+        int updated = entityManager.createQuery(update).executeUpdate();
+        dailyTotals.addExpenses(userId, ids);
+        return new BulkChunk(ids, updated);
+    }
+
+    private static Specification<ExpenseEntity> idGreaterThan(UUID id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    private static void applyPatch(CriteriaUpdate<ExpenseEntity> update, Root<ExpenseEntity> root,
+                                   CriteriaBuilder cb, ExpensePatch patch) {
+        if (patch.amount() != null) update.set(root.<BigDecimal>get("amount"), patch.amount());
+        if (patch.description() != null) update.set(root.<String>get("description"), patch.description());
+        if (patch.expenseDate() != null) update.set(root.<LocalDateTime>get("expenseDate"), patch.expenseDate());
+        if (patch.category() != null) update.set(root.<ECategory>get("category"), patch.category());
+        if (patch.currency() != null) update.set(root.<ECurrency>get("currency"), patch.currency());
+        if (patch.paymentMethod() != null) update.set(root.<EPaymentMethod>get("paymentMethod"), patch.paymentMethod());
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+    }
+
+    private List<UUID> findIds(Specification<ExpenseEntity> specification, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<ExpenseEntity> root = query.from(ExpenseEntity.class);
+        query.select(root.get("id"))
+                .where(specification.toPredicate(root, query, cb))
+                .orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public ExpenseSummaryProjection summarize(UUID userId, LocalDateTime startDate, LocalDateTime endDate) {
+        Map<ECategory, CategoryTotal> categories = new EnumMap<>(ECategory.class);
+        Map<ECurrency, CurrencyTotal> currencies = new EnumMap<>(ECurrency.class);
+        Map<EPaymentMethod, Long> paymentMethods = new EnumMap<>(EPaymentMethod.class);
+        // the range is inclusive: a day is whole when it starts at midnight or ends at LocalTime.MAX
+        LocalDate firstWholeDay = startDate.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? startDate.toLocalDate()
+                : startDate.toLocalDate().plusDays(1);
+        LocalDate lastWholeDay = endDate.toLocalTime().equals(LocalTime.MAX)
+                ? endDate.toLocalDate()
+                : endDate.toLocalDate().minusDays(1);
+        LocalDateTime headEnd = startDate;
+        LocalDateTime tailStart = startDate;
+        if (!firstWholeDay.isAfter(lastWholeDay)) {
+            headEnd = firstWholeDay.atStartOfDay();
+            tailStart = lastWholeDay.plusDays(1).atStartOfDay();
+        }
+        // every row carries the columns of its grouping and nulls for the others (the columns
+        // are NOT NULL); without grouping sets each row has all three and feeds every section
+        jdbcTemplate.query(summaryGroupingSets ? SUMMARY_GROUPING_SETS_SQL : SUMMARY_GROUP_BY_SQL, rs -> {
+            long count = rs.getLong("count");
+            BigDecimal total = rs.getBigDecimal("total");
+            String category = rs.getString("category");
+            String currency = rs.getString("currency");
+            String paymentMethod = rs.getString("payment_method");
+            if (category != null) {
+                ECategory key = ECategory.valueOf(category);
+                categories.merge(key, new CategoryTotal(key, total, (int) count), CategoryTotal::plus);
+            }
+            if (currency != null) {
+                ECurrency key = ECurrency.valueOf(currency);
+                currencies.merge(key, new CurrencyTotal(key, total), CurrencyTotal::plus);
+            }
+            if (paymentMethod != null) {
+                paymentMethods.merge(EPaymentMethod.valueOf(paymentMethod), count, Long::sum);
+            }
+        }, userId, Date.valueOf(firstWholeDay), Date.valueOf(lastWholeDay),
+                userId, Timestamp.valueOf(startDate), Timestamp.valueOf(headEnd),
+                Timestamp.valueOf(tailStart), Timestamp.valueOf(endDate));
+
+        List<ExpenseCurrencyProjection> totalsByCurrency = List.copyOf(currencies.values().stream()
+                .sorted(Comparator.comparing(CurrencyTotal::total).reversed()
+                        .thenComparing(currencyTotal -> currencyTotal.currency().name()))
+                .toList());
+        List<ExpenseCategoryProjection> totalsByCategory = List.copyOf(categories.values().stream()
+                .sorted(Comparator.comparing(CategoryTotal::total).reversed()
+                        .thenComparing(categoryTotal -> categoryTotal.category().name()))
+                .toList());
+        PaymentMethodSummary mostUsedPaymentMethod = paymentMethods.entrySet().stream()
+                .min(Map.Entry.<EPaymentMethod, Long>comparingByValue().reversed()
+                        .thenComparing(entry -> entry.getKey().name()))
+                .map(entry -> new PaymentMethodSummary(entry.getKey(), entry.getValue()))
+                .orElse(null);
+        return new ExpenseSummaryProjection(
+                totalsByCurrency,
+                totalsByCategory,
+                mostUsedPaymentMethod,
+                categories.values().stream().map(CategoryTotal::total).reduce(BigDecimal.ZERO, BigDecimal::add),
+                categories.values().stream().mapToInt(CategoryTotal::count).sum()
+        );
+    }
+
+    @Override
+    public List<ExpenseBucketProjection> timeSeries(UUID userId, ExpenseFilter filter, ETimeGranularity granularity,
+                                                    ETimeSeriesSplit split) {
+        List<Object> args = new ArrayList<>();
+        String sql = TIME_SERIES_SQL.formatted(granularity.getTruncUnit(),
+                split == null ? "" : ", " + split.getColumn(),
+                filterConditions(userId, filter, args));
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new ExpenseBucketProjection(
+                rs.getTimestamp("bucket").toLocalDateTime().toLocalDate(),
+                split == null ? null : rs.getString(split.getColumn()),
+                rs.getBigDecimal("total"),
+                rs.getLong("count")
+        ), args.toArray());
+    }
+
+    /**
+     * SQL counterpart of {@link ExpenseSpecification#withFilters} for the JDBC queries. Both
+     * read the date range from the filter; RepositoryQueryCountTest checks that they select
+     * the same expenses for every filter field.
+     */
+    private static String filterConditions(UUID userId, ExpenseFilter filter, List<Object> args) {
+        StringBuilder conditions = new StringBuilder("user_id = ?");
+        args.add(userId);
+        if (filter == null) {
+            return conditions.toString();
+        }
+        LocalDateTime start = filter.rangeStart();
+        LocalDateTime end = filter.rangeEnd();
+        if (start != null) {
+            conditions.append(" AND expense_date >= ?");
+            args.add(Timestamp.valueOf(start));
+        }
+        if (end != null) {
+            conditions.append(" AND expense_date <= ?");
+            args.add(Timestamp.valueOf(end));
+        }
+        if (filter.category() != null) {
+            conditions.append(" AND category = ?");
+            args.add(filter.category().name());
+        }
+        if (filter.currency() != null) {
+            conditions.append(" AND currency = ?");
+            args.add(filter.currency().name());
+        }
+        if (filter.paymentMethod() != null) {
+            conditions.append(" AND payment_method = ?");
+            args.add(filter.paymentMethod().name());
+        }
+        return conditions.toString();
+    }
+
+    private static EntityNotFoundException expenseNotFound(UUID id) {
+        return new EntityNotFoundException("Expense not found for id: " + id);
+    }
+
+    private record CountKey(UUID userId, ExpenseFilter filter) {
+    }
+
+    private record BulkChunk(List<UUID> ids, int affected) {
+    }
+
+    private record CategoryTotal(ECategory category, BigDecimal total, int count) implements ExpenseCategoryProjection {
+        CategoryTotal plus(CategoryTotal other) {
+            return new CategoryTotal(category, total.add(other.total), count + other.count);
+        }
+
+        @Override
+        public ECategory getCategory() {
+            return category;
+        }
+
+        @Override
+        public BigDecimal getTotal() {
+            return total;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private record CurrencyTotal(ECurrency currency, BigDecimal total) implements ExpenseCurrencyProjection {
+        CurrencyTotal plus(CurrencyTotal other) {
+            return new CurrencyTotal(currency, total.add(other.total));
+        }
+
+        @Override
+        public ECurrency getCurrency() {
+            return currency;
+        }
+
+        @Override
+        public BigDecimal getTotal() {
+            return total;
+        }
     }
 }
@@ -0,0 +1,28 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.IdempotencyRecord;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface IdempotencyRecordRepository {
+
+    /**
+     * @return the record saved for the key, unless it expired
+     */
+    Optional<IdempotencyRecord> find(UUID userId, String key);
+
+    /**
+     * Writes the record in the current transaction, so it is stored together with the result
+     * of the request or not at all. It is cached only after the transaction commits.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException when another request already
+     *                                                       stored a live record for the key
+     */
+    void save(IdempotencyRecord record);
+
+    /**
+     * Removes expired records from the table, if it is enabled.
+     */
+    int deleteExpired();
+}
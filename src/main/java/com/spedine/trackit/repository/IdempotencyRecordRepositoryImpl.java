@@ -0,0 +1,110 @@
+package com.spedine.trackit.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spedine.trackit.model.IdempotencyRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps records in a bounded in-memory cache. When the table is enabled they are also written
+ * to it, so retries that reach another node or arrive after a restart are still recognized.
+ */
+@Repository
+class IdempotencyRecordRepositoryImpl implements IdempotencyRecordRepository {
+
+    private static final String SELECT_RECORD_SQL = """
+            SELECT request_hash, response_body, created_at FROM idempotency_keys
+            WHERE user_id = ? AND idempotency_key = ? AND created_at > ?
+            """;
+    private static final String INSERT_RECORD_SQL = """
+            INSERT INTO idempotency_keys (user_id, idempotency_key, request_hash, response_body, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String DELETE_EXPIRED_KEY_SQL =
+            "DELETE FROM idempotency_keys WHERE user_id = ? AND idempotency_key = ? AND created_at <= ?";
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM idempotency_keys WHERE created_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final boolean tableEnabled;
+    private final Cache<RecordKey, IdempotencyRecord> records;
+
+    public IdempotencyRecordRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                           @Value("${idempotency.ttl:24h}") Duration ttl,
+                                           @Value("${idempotency.maximum-size:100000}") long maximumSize,
+                                           @Value("${idempotency.table.enabled:false}") boolean tableEnabled,
+                                           MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.tableEnabled = tableEnabled;
+        this.records = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, records, "idempotency-keys");
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> find(UUID userId, String key) {
+        RecordKey recordKey = new RecordKey(userId, key);
+        IdempotencyRecord record = records.getIfPresent(recordKey);
+        if (record != null || !tableEnabled) {
+            return Optional.ofNullable(record);
+        }
+        Optional<IdempotencyRecord> stored = jdbcTemplate.query(SELECT_RECORD_SQL,
+                (rs, rowNum) -> new IdempotencyRecord(userId, key,
+                        rs.getString("request_hash"),
+                        rs.getString("response_body"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                userId, key, Timestamp.valueOf(LocalDateTime.now().minus(ttl))
+        ).stream().findFirst();
+        stored.ifPresent(found -> records.put(recordKey, found));
+        return stored;
+    }
+
+    @Override
+    public void save(IdempotencyRecord record) {
+        RecordKey recordKey = new RecordKey(record.userId(), record.key());
+        if (tableEnabled) {
+            // an expired record may still be waiting for the cleanup; it must not win over this one
+            jdbcTemplate.update(DELETE_EXPIRED_KEY_SQL, record.userId(), record.key(),
+                    Timestamp.valueOf(LocalDateTime.now().minus(ttl)));
+            jdbcTemplate.update(INSERT_RECORD_SQL, record.userId(), record.key(), record.requestHash(),
+                    record.responseBody(), Timestamp.valueOf(record.createdAt()));
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    records.put(recordKey, record);
+                }
+            });
+        } else {
+            records.put(recordKey, record);
+        }
+    }
+
+    @Override
+    public int deleteExpired() {
+        if (!tableEnabled) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_EXPIRED_SQL, Timestamp.valueOf(LocalDateTime.now().minus(ttl)));
+    }
+
+    private record RecordKey(UUID userId, String key) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.RefreshTokenEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+interface RefreshTokenJpaRepository extends JpaRepository<RefreshTokenEntity, UUID> {
+
+    @Query("SELECT t FROM RefreshTokenEntity t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshTokenEntity> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE RefreshTokenEntity t
+                SET t.usedAt = :usedAt
+                WHERE t.id = :id
+                  AND t.usedAt IS NULL
+                  AND t.revokedAt IS NULL
+            """)
+    int markUsed(@Param("id") UUID id, @Param("usedAt") LocalDateTime usedAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+                UPDATE RefreshTokenEntity t
+                SET t.revokedAt = :revokedAt
+                WHERE t.sessionId = :sessionId
+                  AND t.revokedAt IS NULL
+            """)
+    int revokeSession(@Param("sessionId") UUID sessionId, @Param("revokedAt") LocalDateTime revokedAt);
+
+    @Query("SELECT DISTINCT t.sessionId FROM RefreshTokenEntity t WHERE t.revokedAt >= :since")
+    List<UUID> findSessionsRevokedSince(@Param("since") LocalDateTime since);
+}
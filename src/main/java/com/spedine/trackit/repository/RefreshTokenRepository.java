@@ -0,0 +1,25 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.RefreshToken;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenRepository {
+    RefreshToken save(RefreshToken token);
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Atomically marks an active token as used.
+     *
+     * @return false when another request already used it or its session was revoked
+     */
+    boolean markUsed(UUID id, LocalDateTime usedAt);
+
+    void revokeSession(UUID sessionId, LocalDateTime revokedAt);
+
+    List<UUID> findSessionsRevokedSince(LocalDateTime since);
+}
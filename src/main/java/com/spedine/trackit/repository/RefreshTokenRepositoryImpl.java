@@ -0,0 +1,50 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.RefreshToken;
+import com.spedine.trackit.model.RefreshTokenEntity;
+import com.spedine.trackit.model.UserEntity;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+class RefreshTokenRepositoryImpl implements RefreshTokenRepository {
+
+    private final RefreshTokenJpaRepository jpaRepository;
+    private final UserJpaRepository userJpaRepository;
+
+    public RefreshTokenRepositoryImpl(RefreshTokenJpaRepository jpaRepository, UserJpaRepository userJpaRepository) {
+        this.jpaRepository = jpaRepository;
+        this.userJpaRepository = userJpaRepository;
+    }
+
+    @Override
+    public RefreshToken save(RefreshToken token) {
+        UserEntity user = userJpaRepository.getReferenceById(token.getUser().getId());
+        jpaRepository.save(RefreshTokenEntity.fromDomain(token, user));
+        return token;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        return jpaRepository.findByTokenHash(tokenHash).map(RefreshTokenEntity::toDomain);
+    }
+
+    @Override
+    public boolean markUsed(UUID id, LocalDateTime usedAt) {
+        return jpaRepository.markUsed(id, usedAt) == 1;
+    }
+
+    @Override
+    public void revokeSession(UUID sessionId, LocalDateTime revokedAt) {
+        jpaRepository.revokeSession(sessionId, revokedAt);
+    }
+
+    @Override
+    public List<UUID> findSessionsRevokedSince(LocalDateTime since) {
+        return jpaRepository.findSessionsRevokedSince(since);
+    }
+}
@@ -2,8 +2,12 @@ package com.spedine.trackit.repository;
 
 import com.spedine.trackit.model.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 
 interface UserJpaRepository extends JpaRepository<UserEntity, UUID> {
@@ -12,4 +16,10 @@ interface UserJpaRepository extends JpaRepository<UserEntity, UUID> {
     UserEntity findUserEntityByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.email FROM UserEntity u WHERE u.email IN :emails")
+    Set<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+    @Query("SELECT u.id FROM UserEntity u WHERE u.id IN :ids")
+    Set<UUID> findIdsIn(@Param("ids") Collection<UUID> ids);
 }
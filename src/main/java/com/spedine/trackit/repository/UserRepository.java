@@ -2,8 +2,25 @@ package com.spedine.trackit.repository;
 
 import com.spedine.trackit.model.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 public interface UserRepository {
     User save(User user);
     User findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /**
+     * Returns which of the given emails are already registered, in a single query.
+     */
+    Set<String> findExistingEmails(Collection<String> emails);
+
+    /**
+     * Inserts new users with JDBC batching, bypassing the per-entity persistence context. Users
+     * whose email was registered meanwhile are skipped instead of failing the whole batch.
+     *
+     * @return emails of the skipped users
+     */
+    Set<String> insertAll(List<User> users);
 }
@@ -1,43 +1,179 @@
 package com.spedine.trackit.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.spedine.trackit.model.User;
 import com.spedine.trackit.model.UserEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Repository
-class UserRepositoryImpl implements UserRepository, UserDetailsService {
+class UserRepositoryImpl implements UserRepository, UserDetailsService, UserDetailsPasswordService {
+
+    /**
+     * Standard MERGE, as for the daily totals, so H2 runs the same statement: a row whose email
+     * is already registered matches and is left alone.
+     */
+    private static final String INSERT_USER_SQL = """
+            MERGE INTO users u
+            USING (SELECT CAST(? AS UUID) AS id, CAST(? AS VARCHAR(100)) AS name, CAST(? AS VARCHAR(255)) AS email,
+                          CAST(? AS VARCHAR(255)) AS password, CAST(? AS VARCHAR(20)) AS role,
+                          CAST(? AS TIMESTAMP) AS created_at) s
+            ON u.email = s.email
+            WHEN NOT MATCHED THEN
+                INSERT (id, name, email, password, role, created_at, version)
+                VALUES (s.id, s.name, s.email, s.password, s.role, s.created_at, 0)
+            """;
 
     private final UserJpaRepository userJpaRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int insertBatchSize;
 
-    public UserRepositoryImpl(UserJpaRepository userJpaRepository) {
+    /**
+     * Users by email, including misses so unknown emails don't hit the database on every
+     * attempt. Misses live shorter because another node may register that email. Entries are
+     * never handed out: every caller gets its own copy, so one that changes the user it got
+     * (a password rehash) cannot change what other requests see.
+     */
+    private final Cache<String, Optional<User>> usersByEmail;
+
+    public UserRepositoryImpl(UserJpaRepository userJpaRepository,
+                              JdbcTemplate jdbcTemplate,
+                              @Value("${users.insert.batch-size:500}") int insertBatchSize,
+                              @Value("${users.cache.maximum-size:10000}") long cacheMaximumSize,
+                              @Value("${users.cache.ttl:10m}") Duration cacheTtl,
+                              @Value("${users.cache.negative-ttl:30s}") Duration cacheNegativeTtl,
+                              MeterRegistry meterRegistry) {
         this.userJpaRepository = userJpaRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertBatchSize = insertBatchSize;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new UserExpiry(cacheTtl, cacheNegativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, "users");
     }
 
     @Override
     public User save(User user) {
         UserEntity userEntity = UserEntity.fromDomain(user);
         userJpaRepository.save(userEntity);
+        usersByEmail.invalidate(user.getEmail());
         return userEntity.toDomain();
     }
 
     @Override
     public UserDetails loadUserByUsername(String email) {
-        return userJpaRepository.findByEmail(email);
+        return findCached(email).map(UserEntity::fromDomain).orElse(null);
     }
 
+    /**
+     * Called by Spring Security after a successful login when the stored hash uses an
+     * outdated encoding or cost.
+     */
     @Override
-    public User findByEmail(String email) {
-        UserEntity userEntity = userJpaRepository.findUserEntityByEmail(email);
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserEntity userEntity = userJpaRepository.findUserEntityByEmail(user.getUsername());
         if (userEntity == null) {
-            return null;
+            return user;
         }
-        return userEntity.toDomain();
+        userEntity.setPassword(newPassword);
+        userJpaRepository.save(userEntity);
+        usersByEmail.invalidate(user.getUsername());
+        return userEntity;
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return findCached(email)
+                .map(UserRepositoryImpl::copyOf)
+                .orElse(null);
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return userJpaRepository.existsByEmail(email);
+        return findCached(email).isPresent();
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return Set.of();
+        }
+        return userJpaRepository.findEmailsIn(emails);
+    }
+
+    @Override
+    @Transactional
+    public Set<String> insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return Set.of();
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_USER_SQL, users, insertBatchSize, (ps, user) -> {
+            ps.setObject(1, user.getId());
+            ps.setString(2, user.getName());
+            ps.setString(3, user.getEmail());
+            ps.setString(4, user.getPassword());
+            ps.setString(5, user.getRole().name());
+            ps.setTimestamp(6, Timestamp.valueOf(user.getCreatedAt()));
+        });
+        // drop cached misses for these emails
+        usersByEmail.invalidateAll(users.stream().map(User::getEmail).toList());
+        if (Arrays.stream(counts).flatMapToInt(Arrays::stream).allMatch(count -> count == 1)) {
+            return Set.of();
+        }
+        // skipped rows report 0, but a driver may only report SUCCESS_NO_INFO: look them up
+        Set<UUID> inserted = userJpaRepository.findIdsIn(users.stream().map(User::getId).toList());
+        return users.stream()
+                .filter(user -> !inserted.contains(user.getId()))
+                .map(User::getEmail)
+                .collect(Collectors.toSet());
+    }
+
+    private Optional<User> findCached(String email) {
+        return usersByEmail.get(email, key -> Optional.ofNullable(userJpaRepository.findUserEntityByEmail(key))
+                .map(UserEntity::toDomain));
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getName(), user.getEmail(), user.getPassword(), user.getRole(),
+                user.getCreatedAt(), user.getVersion());
+    }
+
+    private record UserExpiry(Duration ttl, Duration negativeTtl) implements Expiry<String, Optional<User>> {
+
+        @Override
+        public long expireAfterCreate(String email, Optional<User> user, long currentTime) {
+            return user.isPresent() ? ttl.toNanos() : negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String email, Optional<User> user, long currentTime, long currentDuration) {
+            return expireAfterCreate(email, user, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String email, Optional<User> user, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -1,25 +1,31 @@
 package com.spedine.trackit.service;
 
+import com.spedine.trackit.dto.TokenResponse;
 import com.spedine.trackit.dto.UserLoginRequest;
+import com.spedine.trackit.infra.PasswordHashingConfig;
 import com.spedine.trackit.model.User;
 import com.spedine.trackit.model.UserEntity;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class AuthenticationService {
 
     private final AuthenticationManager authenticationManager;
-    private final TokenService tokenService;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthenticationService(AuthenticationManager authenticationManager, TokenService tokenService) {
+    public AuthenticationService(AuthenticationManager authenticationManager, RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
-        this.tokenService = tokenService;
+        this.refreshTokenService = refreshTokenService;
     }
 
-    public String authenticateAndGenerateToken(UserLoginRequest loginRequest) {
+    @Async(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR)
+    public CompletableFuture<TokenResponse> authenticateAndGenerateToken(UserLoginRequest loginRequest) {
         UsernamePasswordAuthenticationToken authToken = 
             new UsernamePasswordAuthenticationToken(loginRequest.email(), loginRequest.password());
         
@@ -28,6 +34,6 @@ public class AuthenticationService {
         UserEntity userEntity = (UserEntity) authentication.getPrincipal();
         User user = userEntity.toDomain();
         
-        return tokenService.genToken(user);
+        return CompletableFuture.completedFuture(refreshTokenService.startSession(user));
     }
 }
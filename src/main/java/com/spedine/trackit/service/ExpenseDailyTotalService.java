@@ -0,0 +1,46 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.repository.ExpenseChangeVersionRepository;
+import com.spedine.trackit.repository.ExpenseDailyTotalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rebuilds the daily totals behind the expense summary. Expense writes keep them up to date;
+ * a rebuild is only needed after expenses were changed outside the application.
+ */
+@Service
+public class ExpenseDailyTotalService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpenseDailyTotalService.class);
+
+    private final ExpenseDailyTotalRepository dailyTotals;
+    private final ExpenseChangeVersionRepository changeVersions;
+
+    public ExpenseDailyTotalService(ExpenseDailyTotalRepository dailyTotals,
+                                    ExpenseChangeVersionRepository changeVersions) {
+        this.dailyTotals = dailyTotals;
+        this.changeVersions = changeVersions;
+    }
+
+    /**
+     * Recomputes the totals of every user, one user per transaction.
+     *
+     * @return number of users rebuilt
+     */
+    public int rebuildAll() {
+        List<UUID> userIds = dailyTotals.findUserIds();
+        long rows = 0;
+        for (UUID userId : userIds) {
+            rows += dailyTotals.rebuild(userId);
+            // repaired totals change the summary, so cached responses must be revalidated
+            changeVersions.increment(userId);
+        }
+        log.info("Rebuilt {} daily expense totals for {} users", rows, userIds.size());
+        return userIds.size();
+    }
+}
@@ -1,35 +1,128 @@
 package com.spedine.trackit.service;
 
 import com.spedine.trackit.dto.*;
+import com.spedine.trackit.model.ECountMode;
+import com.spedine.trackit.model.EExpenseField;
+import com.spedine.trackit.model.ETimeGranularity;
+import com.spedine.trackit.model.ETimeSeriesSplit;
 import com.spedine.trackit.model.Expense;
+import com.spedine.trackit.model.ExpensePatch;
 import com.spedine.trackit.model.User;
-import com.spedine.trackit.projection.ExpenseCountAndTotalProjection;
+import com.spedine.trackit.projection.ExpenseBucketProjection;
+import com.spedine.trackit.projection.ExpenseSummaryProjection;
+import com.spedine.trackit.repository.ExpenseChangeVersionRepository;
 import com.spedine.trackit.repository.ExpenseRepository;
-import org.springframework.data.domain.Page;
+import jakarta.validation.Validator;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ExpenseService {
 
+    private static final int MAX_TIME_SERIES_BUCKETS = 5000;
+
     private final ExpenseRepository repository;
+    private final ExpenseChangeVersionRepository changeVersions;
+    private final ExpenseSummaryCache summaryCache;
+    private final Validator validator;
 
-    public ExpenseService(ExpenseRepository repository) {
+    public ExpenseService(ExpenseRepository repository, ExpenseChangeVersionRepository changeVersions,
+                          ExpenseSummaryCache summaryCache, Validator validator) {
         this.repository = repository;
+        this.changeVersions = changeVersions;
+        this.summaryCache = summaryCache;
+        this.validator = validator;
+    }
+
+    /**
+     * Version of the user's expenses, moved forward by every write. Read it before the data
+     * it describes.
+     */
+    public long getChangeVersion(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        return changeVersions.findByUserId(user.getId());
     }
 
+    @Transactional
     public void save(CreateExpenseRequest body, User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
-        Expense expense = new Expense(
+        repository.save(toExpense(body, user));
+        changeVersions.increment(user.getId());
+    }
+
+    /**
+     * Creates many expenses in one transaction. Every item is validated on its own and
+     * reported in the response; the valid ones are inserted together in JDBC batches.
+     */
+    @Transactional
+    public BatchResponse saveAll(List<CreateExpenseRequest> bodies, User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        BatchItemResult[] results = new BatchItemResult[bodies.size()];
+        List<Expense> expenses = new ArrayList<>(bodies.size());
+        List<Integer> indexes = new ArrayList<>(bodies.size());
+
+        for (int i = 0; i < bodies.size(); i++) {
+            CreateExpenseRequest body = bodies.get(i);
+            if (body == null) {
+                results[i] = BatchItemResult.failed(i, "Expense cannot be null");
+                continue;
+            }
+            List<String> errors = validator.validate(body).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .toList();
+            if (!errors.isEmpty()) {
+                results[i] = BatchItemResult.failed(i, errors);
+                continue;
+            }
+            try {
+                expenses.add(toExpense(body, user));
+                indexes.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchItemResult.failed(i, e.getMessage());
+            }
+        }
+
+        if (!expenses.isEmpty()) {
+            repository.saveAll(expenses);
+            changeVersions.increment(user.getId());
+        }
+        for (int i = 0; i < expenses.size(); i++) {
+            results[indexes.get(i)] = BatchItemResult.created(indexes.get(i), expenses.get(i).getId());
+        }
+        return BatchResponse.of(Arrays.asList(results));
+    }
+
+    private Expense toExpense(CreateExpenseRequest body, User user) {
+        return new Expense(
                 body.amount(),
                 body.description(),
                 body.expenseDate(),
@@ -38,10 +131,14 @@ public class ExpenseService {
                 body.paymentMethod(),
                 user
         );
-        repository.save(expense);
     }
 
     public PageResponse<ExpenseResponse> findAll(User user, int page, int size, ExpenseFilter filter) {
+        return findAll(user, page, size, filter, ECountMode.EXACT, EExpenseField.ALL);
+    }
+
+    public PageResponse<ExpenseResponse> findAll(User user, int page, int size, ExpenseFilter filter,
+                                                 ECountMode countMode, Set<EExpenseField> fields) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
@@ -52,10 +149,37 @@ public class ExpenseService {
             throw new IllegalArgumentException("Page size must be greater than zero");
         }
         Pageable pageable = PageRequest.of(page, size, Sort.Direction.DESC, "expenseDate");
-        Page<ExpenseResponse> expenses = repository.findAll(user, pageable, filter).map(ExpenseResponse::fromDomain);
-        return new PageResponse<>(expenses);
+        return switch (countMode) {
+            case EXACT -> new PageResponse<>(repository.findAll(user, pageable, filter, fields));
+            case NONE -> new PageResponse<>(repository.findSlice(user, pageable, filter, fields));
+            case ESTIMATE -> new PageResponse<>(
+                    repository.findSlice(user, pageable, filter, fields),
+                    repository.estimateCount(user.getId(), filter)
+            );
+        };
     }
 
+    public CursorPageResponse<ExpenseResponse> scroll(User user, int size, String cursor, ExpenseFilter filter) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        ExpenseCursor after = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+        // one extra row tells whether another page exists without counting
+        List<ExpenseResponse> expenses = repository.findAfter(user.getId(), filter, after, size + 1);
+        boolean hasNext = expenses.size() > size;
+        List<ExpenseResponse> page = hasNext ? expenses.subList(0, size) : expenses;
+        String nextCursor = null;
+        if (hasNext) {
+            ExpenseResponse last = page.get(page.size() - 1);
+            nextCursor = new ExpenseCursor(last.expenseDate(), last.id()).encode();
+        }
+        return new CursorPageResponse<>(page, size, nextCursor, hasNext);
+    }
+
+    @Transactional
     public ExpenseResponse update(UUID id, UpdateExpenseRequest body, User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
@@ -63,39 +187,71 @@ public class ExpenseService {
         if (id == null) {
             throw new IllegalArgumentException("Expense ID cannot be null");
         }
-        Expense expense = repository.findByIdAndUser_Id(id, user.getId());
-        if (body.amount() != null) {
-            expense.setAmount(body.amount());
+        ExpensePatch patch = new ExpensePatch(
+                body.amount(),
+                body.description(),
+                body.expenseDate(),
+                body.category(),
+                body.currency(),
+                body.paymentMethod()
+        );
+        if (patch.isEmpty()) {
+            // nothing changes, so the row version and every cached read stay valid
+            return repository.findByIdAndUser_Id(id, user.getId(), EExpenseField.ALL);
         }
-        if (body.description() != null) {
-            expense.setDescription(body.description());
+        ExpenseResponse updated = repository.update(id, user.getId(), patch);
+        changeVersions.increment(user.getId());
+        return updated;
+    }
+
+    @Transactional
+    public void delete(UUID id, User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
         }
-        if (body.expenseDate() != null) {
-            expense.setExpenseDate(body.expenseDate());
+        if (id == null) {
+            throw new IllegalArgumentException("Expense ID cannot be null");
         }
-        if (body.category() != null) {
-            expense.setCategory(body.category());
+        repository.deleteByIdAndUser_Id(id, user.getId());
+        changeVersions.increment(user.getId());
+    }
+
+    public BulkResultResponse deleteAll(ExpenseFilter filter, User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
         }
-        if (body.currency() != null) {
-            expense.setCurrency(body.currency());
+        if (filter == null || filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required for bulk delete");
         }
-        if (body.paymentMethod() != null) {
-            expense.setPaymentMethod(body.paymentMethod());
+        long deleted = repository.deleteAll(user.getId(), filter);
+        if (deleted > 0) {
+            changeVersions.increment(user.getId());
         }
-        return ExpenseResponse.fromDomain(repository.save(expense));
+        return new BulkResultResponse(deleted);
     }
 
-    public void delete(UUID id, User user) {
+    public BulkResultResponse updateAll(ExpenseFilter filter, BulkUpdateExpenseRequest body, User user) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
-        if (id == null) {
-            throw new IllegalArgumentException("Expense ID cannot be null");
+        if (filter == null || filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required for bulk update");
+        }
+        ExpensePatch patch = new ExpensePatch(null, null, null, body.category(), body.currency(), body.paymentMethod());
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("At least one field to update is required");
         }
-        Expense expense = repository.findByIdAndUser_Id(id, user.getId());
-        repository.delete(expense);
+        long updated = repository.updateAll(user.getId(), filter, patch);
+        if (updated > 0) {
+            changeVersions.increment(user.getId());
+        }
+        return new BulkResultResponse(updated);
     }
 
+    /**
+     * Summaries are cached per change version, which is read before the summary is computed:
+     * a write racing with the computation leaves its result under the old version.
+     */
     public ExpenseSummaryResponse getExpenseSummary(User user, LocalDate startDate, LocalDate endDate) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
@@ -113,22 +269,126 @@ public class ExpenseService {
             throw new IllegalArgumentException("Start date must be before or equal to end date");
         }
 
+        LocalDate start = startDate;
+        LocalDate end = endDate;
+        long version = changeVersions.findByUserId(user.getId());
+        return summaryCache.get(user.getId(), start, end, version, () -> summarize(user, start, end));
+    }
+
+    private ExpenseSummaryResponse summarize(User user, LocalDate startDate, LocalDate endDate) {
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
 
-        ExpenseCountAndTotalProjection expenseCountAndTotal = repository.countAndSumTotalAmount(user.getId(), startDateTime, endDateTime);
+        ExpenseSummaryProjection summary = repository.summarize(user.getId(), startDateTime, endDateTime);
 
         return new ExpenseSummaryResponse(
                 startDate, endDate,
-                repository.groupByCurrencyAndSumAmount(user.getId(), startDateTime, endDateTime),
-                repository.groupByExpenseCategoryAndSumAmount(user.getId(), startDateTime, endDateTime),
-                repository.getMostUsedPaymentMethod(user.getId(), startDateTime, endDateTime),
-                expenseCountAndTotal.getTotalExpense(),
-                expenseCountAndTotal.getCount()
+                summary.totalsByCurrency(),
+                summary.totalsByCategory(),
+                summary.mostUsedPaymentMethod(),
+                summary.total(),
+                summary.count()
         );
     }
 
+    /**
+     * Spending per bucket in columnar form. Buckets cover the filtered range, zero-filled where
+     * there are no expenses; an open end of the range stops at the first or last bucket with
+     * expenses. Every series has a value for each bucket.
+     */
+    public ExpenseTimeSeriesResponse getTimeSeries(User user, ExpenseFilter filter, ETimeGranularity granularity,
+                                                   ETimeSeriesSplit split) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        LocalDateTime rangeStart = filter == null ? null : filter.rangeStart();
+        LocalDateTime rangeEnd = filter == null ? null : filter.rangeEnd();
+        if (rangeStart != null && rangeEnd != null && rangeStart.isAfter(rangeEnd)) {
+            throw new IllegalArgumentException("Start date must be before or equal to end date");
+        }
+        List<ExpenseBucketProjection> rows = repository.timeSeries(user.getId(), filter, granularity, split);
+
+        LocalDate first = rangeStart != null
+                ? granularity.truncate(rangeStart.toLocalDate())
+                : rows.isEmpty() ? null : rows.get(0).bucket();
+        LocalDate last = rangeEnd != null
+                ? granularity.truncate(rangeEnd.toLocalDate())
+                : rows.isEmpty() ? null : rows.get(rows.size() - 1).bucket();
+        if (first == null || last == null) {
+            return new ExpenseTimeSeriesResponse(granularity, split, List.of(), List.of());
+        }
+        if (granularity.getStep().between(first, last) >= MAX_TIME_SERIES_BUCKETS) {
+            throw new IllegalArgumentException("Time series cannot have more than " + MAX_TIME_SERIES_BUCKETS
+                    + " buckets; use a shorter range or a coarser granularity");
+        }
+
+        List<LocalDate> buckets = new ArrayList<>();
+        for (LocalDate bucket = first; !bucket.isAfter(last); bucket = bucket.plus(1, granularity.getStep())) {
+            buckets.add(bucket);
+        }
+        Map<LocalDate, Integer> positions = new HashMap<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            positions.put(buckets.get(i), i);
+        }
+
+        Map<String, ExpenseTimeSeries> series = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        Function<String, ExpenseTimeSeries> emptySeries = key -> new ExpenseTimeSeries(key,
+                new ArrayList<>(Collections.nCopies(buckets.size(), BigDecimal.ZERO)),
+                new ArrayList<>(Collections.nCopies(buckets.size(), 0L)));
+        if (split == null) {
+            // the single series is drawn even when the range has no expenses
+            series.put(null, emptySeries.apply(null));
+        }
+        for (ExpenseBucketProjection row : rows) {
+            ExpenseTimeSeries values = series.computeIfAbsent(row.series(), emptySeries);
+            Integer position = positions.get(row.bucket());
+            if (position == null) {
+                // the database truncated differently (week start, time zone) from the granularity
+                throw new IllegalStateException("Bucket " + row.bucket() + " is not a " + granularity
+                        + " bucket between " + first + " and " + last);
+            }
+            values.totals().set(position, row.total());
+            values.counts().set(position, row.count());
+        }
+        return new ExpenseTimeSeriesResponse(granularity, split, buckets, List.copyOf(series.values()));
+    }
+
     public ExpenseResponse findByUserAndId(UUID id, User user) {
-        return ExpenseResponse.fromDomain(repository.findByIdAndUser_Id(id, user.getId()));
+        return findByUserAndId(id, user, EExpenseField.ALL);
+    }
+
+    public ExpenseResponse findByUserAndId(UUID id, User user, Set<EExpenseField> fields) {
+        return repository.findByIdAndUser_Id(id, user.getId(), fields);
+    }
+
+    /**
+     * Resolves many IDs with one query. The result keeps the request order without duplicates
+     * and reports the IDs that were not found instead of failing. The ID is always selected,
+     * since it is needed to restore the order.
+     */
+    public ExpenseLookupResponse findAllByIds(List<UUID> ids, User user, Set<EExpenseField> fields) {
+        if (user == null) {
+            throw new IllegalArgumentException("User cannot be null");
+        }
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one expense ID is required");
+        }
+        Set<UUID> requested = new LinkedHashSet<>(ids);
+        Set<EExpenseField> selected = EnumSet.of(EExpenseField.ID);
+        selected.addAll(fields);
+        Map<UUID, ExpenseResponse> found = repository.findAllByIdInAndUser_Id(requested, user.getId(), selected).stream()
+                .collect(Collectors.toMap(ExpenseResponse::id, Function.identity()));
+
+        List<ExpenseResponse> expenses = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : requested) {
+            ExpenseResponse expense = found.get(id);
+            if (expense != null) {
+                expenses.add(expense);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new ExpenseLookupResponse(expenses, missing);
     }
 }
@@ -0,0 +1,44 @@
+package com.spedine.trackit.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spedine.trackit.dto.ExpenseSummaryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Computed summaries keyed by user, range and the user's change version. A write moves the
+ * version forward, so the entries of the previous one are never read again and simply age out
+ * by size or TTL instead of being looked up and removed.
+ */
+@Component
+public class ExpenseSummaryCache {
+
+    private final Cache<Key, ExpenseSummaryResponse> summaries;
+
+    public ExpenseSummaryCache(@Value("${expenses.summary.cache.ttl:5m}") Duration ttl,
+                               @Value("${expenses.summary.cache.maximum-size:10000}") long maximumSize,
+                               MeterRegistry meterRegistry) {
+        this.summaries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, summaries, "expenses.summaries");
+    }
+
+    public ExpenseSummaryResponse get(UUID userId, LocalDate startDate, LocalDate endDate, long version,
+                                      Supplier<ExpenseSummaryResponse> loader) {
+        return summaries.get(new Key(userId, startDate, endDate, version), key -> loader.get());
+    }
+
+    private record Key(UUID userId, LocalDate startDate, LocalDate endDate, long version) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.spedine.trackit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spedine.trackit.infra.exception.IdempotencyKeyConflictException;
+import com.spedine.trackit.infra.exception.IdempotencyKeyMismatchException;
+import com.spedine.trackit.infra.util.HashUtils;
+import com.spedine.trackit.model.IdempotencyRecord;
+import com.spedine.trackit.repository.IdempotencyRecordRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per user and Idempotency-Key and replays its response to
+ * retries. Only successful responses are kept, so a retry after an error runs the request
+ * again. The response is stored in the same transaction as the request's writes. Concurrent
+ * requests with the same key are rejected on this node while the first one is running; across
+ * nodes the first to commit wins and the other is rolled back and replays its response.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<InFlightKey> inFlight = ConcurrentHashMap.newKeySet();
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @param key       the Idempotency-Key header; when null the action simply runs
+     * @param operation name of the endpoint, so the same key sent to another endpoint is
+     *                  treated as a different request
+     */
+    public <T> Result<T> execute(UUID userId, String key, String operation, Object request,
+                                 Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return new Result<>(action.get(), false);
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = HashUtils.sha256(operation + ":" + write(request));
+        Optional<IdempotencyRecord> stored = repository.find(userId, key);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash, responseType);
+        }
+
+        InFlightKey inFlightKey = new InFlightKey(userId, key);
+        if (!inFlight.add(inFlightKey)) {
+            throw new IdempotencyKeyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+        try {
+            // the previous holder of the key may have finished between the lookup and the claim
+            stored = repository.find(userId, key);
+            if (stored.isPresent()) {
+                return replay(stored.get(), requestHash, responseType);
+            }
+            T response;
+            try {
+                // the record commits with the action: a failure to store it rolls the action back
+                response = transactionTemplate.execute(status -> {
+                    T result = action.get();
+                    repository.save(new IdempotencyRecord(userId, key, requestHash, write(result), LocalDateTime.now()));
+                    return result;
+                });
+            } catch (DuplicateKeyException e) {
+                // another node completed the same key first; this attempt was rolled back
+                return repository.find(userId, key)
+                        .map(record -> replay(record, requestHash, responseType))
+                        .orElseThrow(() -> new IdempotencyKeyConflictException(
+                                "A request with this Idempotency-Key is still being processed"));
+            }
+            return new Result<>(response, false);
+        } finally {
+            inFlight.remove(inFlightKey);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:1h}")
+    public void deleteExpired() {
+        repository.deleteExpired();
+    }
+
+    private <T> Result<T> replay(IdempotencyRecord record, String requestHash, Class<T> responseType) {
+        if (!record.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("Idempotency-Key was already used for a different request");
+        }
+        try {
+            return new Result<>(objectMapper.readValue(record.responseBody(), responseType), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response cannot be read", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Value cannot be serialized", e);
+        }
+    }
+
+    /**
+     * @param replayed true when the response was stored by an earlier request with the same key
+     */
+    public record Result<T>(T response, boolean replayed) {
+    }
+
+    private record InFlightKey(UUID userId, String key) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.dto.TokenResponse;
+import com.spedine.trackit.infra.exception.JwtAuthenticationException;
+import com.spedine.trackit.infra.util.HashUtils;
+import com.spedine.trackit.model.RefreshToken;
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenService tokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               TokenService tokenService,
+                               TokenRevocationService tokenRevocationService,
+                               @Value("${jwt.refresh-token.ttl:7d}") Duration refreshTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.tokenService = tokenService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    public TokenResponse startSession(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for a new token pair. The presented token is spent; presenting
+     * it again revokes the whole session, since only a stolen copy would do that.
+     */
+    public TokenResponse rotate(String rawRefreshToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(HashUtils.sha256(rawRefreshToken))
+                .orElseThrow(() -> new JwtAuthenticationException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (current.isSpent()) {
+            throw reuseDetected(current);
+        }
+        if (current.isExpired(now)) {
+            throw new JwtAuthenticationException("Refresh token expired");
+        }
+        if (!refreshTokenRepository.markUsed(current.getId(), now)) {
+            // a concurrent request rotated the same token first
+            throw reuseDetected(current);
+        }
+        return issue(current.getUser(), current.getSessionId());
+    }
+
+    public void revoke(String rawRefreshToken) {
+        refreshTokenRepository.findByTokenHash(HashUtils.sha256(rawRefreshToken))
+                .ifPresent(token -> tokenRevocationService.revokeSession(token.getSessionId()));
+    }
+
+    private JwtAuthenticationException reuseDetected(RefreshToken token) {
+        tokenRevocationService.revokeSession(token.getSessionId());
+        return new JwtAuthenticationException("Refresh token was already used");
+    }
+
+    private TokenResponse issue(User user, UUID sessionId) {
+        String rawRefreshToken = newRawToken();
+        refreshTokenRepository.save(new RefreshToken(
+                user,
+                sessionId,
+                HashUtils.sha256(rawRefreshToken),
+                LocalDateTime.now().plus(refreshTokenTtl)
+        ));
+        return new TokenResponse(
+                tokenService.genToken(user, sessionId),
+                rawRefreshToken,
+                tokenService.getAccessTokenTtl().toSeconds()
+        );
+    }
+
+    private String newRawToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
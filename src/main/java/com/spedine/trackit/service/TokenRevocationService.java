@@ -0,0 +1,51 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of revoked login sessions, checked on every request without touching the
+ * database. Only sessions revoked within the last access token TTL are kept: older access
+ * tokens have expired anyway, so the set stays small. Revocations from other nodes are
+ * picked up by the periodic refresh.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration accessTokenTtl;
+    private final Map<UUID, LocalDateTime> revokedSessions = new ConcurrentHashMap<>();
+
+    public TokenRevocationService(RefreshTokenRepository refreshTokenRepository,
+                                  @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokenTtl = accessTokenTtl;
+    }
+
+    public boolean isRevoked(UUID sessionId) {
+        return revokedSessions.containsKey(sessionId);
+    }
+
+    public void revokeSession(UUID sessionId) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.revokeSession(sessionId, now);
+        revokedSessions.put(sessionId, now);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:30s}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.minus(accessTokenTtl);
+        refreshTokenRepository.findSessionsRevokedSince(horizon)
+                .forEach(sessionId -> revokedSessions.putIfAbsent(sessionId, now));
+        revokedSessions.values().removeIf(revokedAt -> revokedAt.isBefore(horizon));
+    }
+}
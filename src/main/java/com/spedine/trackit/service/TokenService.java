@@ -1,51 +1,156 @@
 package com.spedine.trackit.service;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.spedine.trackit.infra.util.HashUtils;
+import com.spedine.trackit.model.AuthenticatedUser;
+import com.spedine.trackit.model.ERole;
 import com.spedine.trackit.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
 
 @Service
 public class TokenService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String USER_ID_CLAIM = "uid";
+    static final String NAME_CLAIM = "name";
+    static final String SESSION_ID_CLAIM = "sid";
+    static final String ROLE_CLAIM = "role";
 
-    public String genToken(User user) {
+    private static final String ISSUER = "TrackIt API";
+
+    private final Duration accessTokenTtl;
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+
+    /**
+     * Tokens that already passed signature verification, keyed by a SHA-256 digest of the
+     * raw token. Entries expire together with the token itself. Revocation does not touch
+     * this cache: SecurityFilter checks the token's session id against the revoked sessions
+     * on every request, cached or not.
+     */
+    private final Cache<String, DecodedJWT> verifiedTokens;
+
+    public TokenService(@Value("${jwt.secret}") String secret,
+                        @Value("${jwt.access-token.ttl:15m}") Duration accessTokenTtl,
+                        @Value("${jwt.cache.maximum-size:10000}") long cacheMaximumSize,
+                        MeterRegistry meterRegistry) {
+        this.accessTokenTtl = accessTokenTtl;
+        this.algorithm = Algorithm.HMAC256(secret);
+        this.verifier = JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+    }
+
+    /**
+     * Issues a short-lived access token bound to a login session, so revoking the session
+     * also rejects its outstanding access tokens.
+     */
+    public String genToken(User user, UUID sessionId) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
             return JWT.create()
-                    .withIssuer("TrackIt API")
+                    .withIssuer(ISSUER)
                     .withSubject(user.getEmail())
-                    .withExpiresAt(expirationDate())
+                    .withClaim(USER_ID_CLAIM, user.getId().toString())
+                    .withClaim(NAME_CLAIM, user.getName())
+                    .withClaim(SESSION_ID_CLAIM, sessionId.toString())
+                    .withClaim(ROLE_CLAIM, user.getRole().name())
+                    .withExpiresAt(Instant.now().plus(accessTokenTtl))
                     .sign(algorithm);
         } catch (JWTCreationException e) {
             throw new JWTCreationException("JWT Token: Generate token", e.getCause());
         }
     }
 
-    public String getSubject(String token) {
+    public DecodedJWT verify(String token) {
+        String key = HashUtils.sha256(token);
+        DecodedJWT cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        DecodedJWT decoded;
         try {
-            Algorithm algorithm = Algorithm.HMAC256(secret);
-            return JWT.require(algorithm)
-                    .withIssuer("TrackIt API")
-                    .build()
-                    .verify(token)
-                    .getSubject();
+            decoded = verifier.verify(token);
         } catch (JWTVerificationException e) {
             throw new JWTVerificationException("JWT Token: Invalid/Expired!");
         }
+        if (decoded.getExpiresAtAsInstant() != null) {
+            verifiedTokens.put(key, decoded);
+        }
+        return decoded;
+    }
+
+    public String getSubject(String token) {
+        return verify(token).getSubject();
+    }
+
+    /**
+     * Builds the principal straight from the token claims. Empty for tokens issued
+     * before the identity claims were added, which still need a user lookup.
+     */
+    public Optional<AuthenticatedUser> getAuthenticatedUser(DecodedJWT token) {
+        Claim userId = token.getClaim(USER_ID_CLAIM);
+        Claim role = token.getClaim(ROLE_CLAIM);
+        if (userId.isMissing() || userId.isNull() || role.isMissing() || role.isNull()) {
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedUser(
+                UUID.fromString(userId.asString()),
+                token.getClaim(NAME_CLAIM).asString(),
+                token.getSubject(),
+                ERole.valueOf(role.asString())
+        ));
+    }
+
+    public Optional<UUID> getSessionId(DecodedJWT token) {
+        Claim sessionId = token.getClaim(SESSION_ID_CLAIM);
+        if (sessionId.isMissing() || sessionId.isNull()) {
+            return Optional.empty();
+        }
+        return Optional.of(UUID.fromString(sessionId.asString()));
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
     }
 
+    private static class TokenExpiry implements Expiry<String, DecodedJWT> {
+
+        @Override
+        public long expireAfterCreate(String key, DecodedJWT token, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), token.getExpiresAtAsInstant());
+            return Math.max(0, remaining.toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DecodedJWT token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
 
-    private Instant expirationDate() {
-        return LocalDateTime.now().plusDays(7).toInstant(ZoneOffset.of("-03:00"));
+        @Override
+        public long expireAfterRead(String key, DecodedJWT token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
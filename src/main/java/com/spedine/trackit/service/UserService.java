@@ -1,25 +1,49 @@
 package com.spedine.trackit.service;
 
+import com.spedine.trackit.dto.BatchItemResult;
+import com.spedine.trackit.dto.BatchResponse;
 import com.spedine.trackit.dto.UserRegisterRequest;
+import com.spedine.trackit.infra.PasswordHashingConfig;
 import com.spedine.trackit.model.User;
 import com.spedine.trackit.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
 import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ThreadPoolTaskExecutor passwordHashingExecutor;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository,
+                       PasswordEncoder passwordEncoder,
+                       Validator validator,
+                       @Qualifier(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR) ThreadPoolTaskExecutor passwordHashingExecutor) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
-    public void registerUser(@Valid UserRegisterRequest body) {
+    @Async(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR)
+    public CompletableFuture<Void> registerUser(@Valid UserRegisterRequest body) {
         if (userRepository.existsByEmail(body.email())) {
             throw new ValidationException("User with this email already exists");
         }
@@ -29,9 +53,93 @@ public class UserService {
         String encodedPassword = passwordEncoder.encode(body.password());
         User newUser = new User(body.name(), body.email(), encodedPassword);
         userRepository.save(newUser);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Registers many users at once. Each row is validated on its own and reported in the
+     * response, email uniqueness is checked with one query, passwords are hashed in parallel
+     * and the accepted rows are inserted in JDBC batches.
+     */
+    public BatchResponse registerUsers(List<UserRegisterRequest> requests) {
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            UserRegisterRequest request = requests.get(i);
+            List<String> errors = validate(request);
+            if (!errors.isEmpty()) {
+                results[i] = BatchItemResult.failed(i, errors);
+            } else if (candidates.putIfAbsent(request.email(), i) != null) {
+                results[i] = BatchItemResult.failed(i, "Duplicate email in request");
+            }
+        }
+
+        Set<String> existingEmails = userRepository.findExistingEmails(candidates.keySet());
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            if (existingEmails.contains(candidate.getKey())) {
+                results[candidate.getValue()] = BatchItemResult.failed(candidate.getValue(), "User with this email already exists");
+            } else {
+                accepted.add(candidate.getValue());
+            }
+        }
+
+        List<String> encodedPasswords = encodeAll(accepted.stream().map(i -> requests.get(i).password()).toList());
+        List<User> newUsers = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            UserRegisterRequest request = requests.get(accepted.get(i));
+            newUsers.add(new User(request.name(), request.email(), encodedPasswords.get(i)));
+        }
+        // emails registered since the check above are skipped by the insert
+        Set<String> skipped = userRepository.insertAll(newUsers);
+
+        for (int i = 0; i < accepted.size(); i++) {
+            int index = accepted.get(i);
+            User user = newUsers.get(i);
+            results[index] = skipped.contains(user.getEmail())
+                    ? BatchItemResult.failed(index, "User with this email already exists")
+                    : BatchItemResult.created(index, user.getId());
+        }
+        return BatchResponse.of(Arrays.asList(results));
     }
 
     public User findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
+
+    private List<String> validate(UserRegisterRequest request) {
+        if (request == null) {
+            return List.of("User cannot be null");
+        }
+        List<String> errors = new ArrayList<>(validator.validate(request).stream()
+                .map(this::formatViolation)
+                .sorted()
+                .toList());
+        if (request.password() != null && !request.password().equals(request.confirmPassword())) {
+            errors.add("Passwords do not match");
+        }
+        return errors;
+    }
+
+    private String formatViolation(ConstraintViolation<UserRegisterRequest> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    /**
+     * Hashes on the password hashing pool, one pool-sized window at a time, so a large batch
+     * never fills the queue and logins submitted meanwhile only wait for the current window.
+     */
+    private List<String> encodeAll(List<String> passwords) {
+        int window = Math.max(1, passwordHashingExecutor.getCorePoolSize());
+        List<String> encoded = new ArrayList<>(passwords.size());
+        for (int start = 0; start < passwords.size(); start += window) {
+            List<CompletableFuture<String>> hashes = passwords.subList(start, Math.min(start + window, passwords.size()))
+                    .stream()
+                    .map(password -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(password), passwordHashingExecutor))
+                    .toList();
+            hashes.forEach(hash -> encoded.add(hash.join()));
+        }
+        return encoded;
+    }
 }
@@ -6,7 +6,6 @@ import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
-import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -19,20 +18,15 @@ public class ExpenseSpecification {
 
             predicates.add(cb.equal(root.get("user").get("id"), userId));
 
-            // if startDate and/or endDate are provided, filter by that range
-            if (filter.startDate() != null || filter.endDate() != null) {
-                if (filter.startDate() != null && filter.endDate() != null) {
-                    predicates.add(cb.between(root.get("expenseDate"), filter.startDate(), filter.endDate()));
-                } else if (filter.startDate() != null) {
-                    predicates.add(cb.greaterThanOrEqualTo(root.get("expenseDate"), filter.startDate()));
-                } else {
-                    predicates.add(cb.lessThanOrEqualTo(root.get("expenseDate"), filter.endDate()));
-                }
-            } else if (filter.month() != null) {
-                YearMonth ym = YearMonth.parse(filter.month());
-                LocalDateTime start = ym.atDay(1).atStartOfDay();
-                LocalDateTime end = ym.atEndOfMonth().atTime(23, 59, 59, 999_999_999);
+            // startDate and/or endDate win over month
+            LocalDateTime start = filter.rangeStart();
+            LocalDateTime end = filter.rangeEnd();
+            if (start != null && end != null) {
                 predicates.add(cb.between(root.get("expenseDate"), start, end));
+            } else if (start != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("expenseDate"), start));
+            } else if (end != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("expenseDate"), end));
             }
 
             if (filter.category() != null) {
@@ -0,0 +1,5 @@
+ALTER TABLE users
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE expenses
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,6 @@
+CREATE TABLE expense_change_versions
+(
+    user_id UUID PRIMARY KEY,
+    version BIGINT NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
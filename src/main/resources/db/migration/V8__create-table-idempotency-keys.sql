@@ -0,0 +1,12 @@
+CREATE TABLE idempotency_keys
+(
+    user_id         UUID         NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    response_body   TEXT         NOT NULL,
+    created_at      TIMESTAMP    NOT NULL,
+    PRIMARY KEY (user_id, idempotency_key),
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
@@ -0,0 +1,17 @@
+CREATE TABLE expense_daily_totals
+(
+    user_id        UUID           NOT NULL,
+    expense_day    DATE           NOT NULL,
+    category       VARCHAR(100)   NOT NULL,
+    currency       VARCHAR(10)    NOT NULL,
+    payment_method VARCHAR(100)   NOT NULL,
+    expense_count  BIGINT         NOT NULL,
+    total_amount   DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (user_id, expense_day, category, currency, payment_method),
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+INSERT INTO expense_daily_totals (user_id, expense_day, category, currency, payment_method, expense_count, total_amount)
+SELECT user_id, CAST(expense_date AS DATE), category, currency, payment_method, COUNT(*), SUM(amount)
+FROM expenses
+GROUP BY user_id, CAST(expense_date AS DATE), category, currency, payment_method;
@@ -0,0 +1,125 @@
+package com.spedine.trackit.controller;
+
+import com.spedine.trackit.dto.TokenResponse;
+import com.spedine.trackit.infra.LoginRateLimiter;
+import com.spedine.trackit.infra.exception.RestExceptionHandler;
+import com.spedine.trackit.service.AuthenticationService;
+import com.spedine.trackit.service.RefreshTokenService;
+import com.spedine.trackit.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationControllerTest {
+
+    private static final String LOGIN_BODY = """
+            {"email": "user@example.com", "password": "password123"}
+            """;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    private LoginRateLimiter loginRateLimiter;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        loginRateLimiter = new LoginRateLimiter(1, Duration.ofSeconds(90), 20, Duration.ofMinutes(1),
+                Duration.ofMinutes(10), 1000, new SimpleMeterRegistry());
+        mockMvc = mockMvc(Duration.ofSeconds(1));
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once the login attempts are used, without authenticating")
+    void login_ShouldReturnTooManyRequests_WhenRateLimited() throws Exception {
+        when(authenticationService.authenticateAndGenerateToken(any())).thenReturn(
+                CompletableFuture.completedFuture(new TokenResponse("access.token", "refresh.token", 900)));
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY));
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "90"))
+                .andExpect(jsonPath("$.message").value("Too many login attempts for this account"));
+
+        verify(authenticationService, times(1)).authenticateAndGenerateToken(any());
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when the password hashing queue is full")
+    void login_ShouldReturnServiceUnavailable_WhenHashingQueueIsFull() throws Exception {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> awaitQuietly(release));
+            executor.execute(() -> awaitQuietly(release));
+            // what the @Async proxy does with the call: hand it to the hashing executor
+            when(authenticationService.authenticateAndGenerateToken(any())).thenAnswer(invocation ->
+                    executor.submitCompletable(() -> new TokenResponse("access.token", "refresh.token", 900)));
+
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.message").value("Server is busy, try again later"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should round a sub-second overload Retry-After up to one second")
+    void login_ShouldRoundRetryAfterUp_WhenRetryAfterIsBelowOneSecond() throws Exception {
+        mockMvc = mockMvc(Duration.ofMillis(500));
+        when(authenticationService.authenticateAndGenerateToken(any())).thenThrow(new TaskRejectedException("Queue full"));
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(LOGIN_BODY))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    private MockMvc mockMvc(Duration overloadRetryAfter) {
+        AuthenticationController controller = new AuthenticationController(userService, authenticationService,
+                refreshTokenService, loginRateLimiter);
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new RestExceptionHandler(overloadRetryAfter))
+                .build();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
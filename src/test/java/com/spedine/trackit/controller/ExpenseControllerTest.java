@@ -0,0 +1,65 @@
+package com.spedine.trackit.controller;
+
+import com.spedine.trackit.infra.exception.RestExceptionHandler;
+import com.spedine.trackit.infra.util.AuthenticationUtil;
+import com.spedine.trackit.service.ExpenseService;
+import com.spedine.trackit.service.IdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseControllerTest {
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private AuthenticationUtil authenticationUtil;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ExpenseController controller = new ExpenseController(expenseService, idempotencyService, authenticationUtil);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new RestExceptionHandler(Duration.ofSeconds(1)))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should answer 400 to a bulk update without any field to set, before reaching the service")
+    void updateExpenses_ShouldReturnBadRequest_WhenNoFieldIsSet() throws Exception {
+        mockMvc.perform(patch("/api/expenses").param("category", "FOOD")
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verify(expenseService, never()).updateAll(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer 400 to a bulk update with an unknown field value")
+    void updateExpenses_ShouldReturnBadRequest_WhenValueIsUnknown() throws Exception {
+        mockMvc.perform(patch("/api/expenses").param("category", "FOOD")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"currency\": \"DOUBLOON\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(expenseService, never()).updateAll(any(), any(), any());
+    }
+}
@@ -0,0 +1,64 @@
+package com.spedine.trackit.infra;
+
+import com.spedine.trackit.infra.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new LoginRateLimiter(2, Duration.ofMinutes(1), 3, Duration.ofMinutes(1),
+                Duration.ofMinutes(10), 1000, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should reject an address once it used its attempts, whatever the email")
+    void shouldLimitAttemptsPerIp() {
+        limiter.acquire("first@example.com", "10.0.0.1");
+        limiter.acquire("second@example.com", "10.0.0.1");
+        limiter.acquire("third@example.com", "10.0.0.1");
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("fourth@example.com", "10.0.0.1"));
+        assertEquals("Too many login attempts from this address", e.getMessage());
+        assertEquals(Duration.ofSeconds(20), e.getRetryAfter());
+
+        assertDoesNotThrow(() -> limiter.acquire("fourth@example.com", "10.0.0.2"));
+        assertEquals(1, meterRegistry.get("auth.login.attempts").tag("limit", "ip").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should reject an email once it used its attempts, whatever the address")
+    void shouldLimitAttemptsPerEmail() {
+        limiter.acquire("user@example.com", "10.0.0.1");
+        limiter.acquire("user@example.com", "10.0.0.2");
+
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire("user@example.com", "10.0.0.3"));
+        assertEquals("Too many login attempts for this account", e.getMessage());
+        assertEquals(Duration.ofSeconds(30), e.getRetryAfter());
+
+        assertDoesNotThrow(() -> limiter.acquire("other@example.com", "10.0.0.3"));
+        assertEquals(1, meterRegistry.get("auth.login.attempts").tag("limit", "email").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should count differently written forms of an email against the same account")
+    void shouldNormalizeEmail() {
+        limiter.acquire("user@example.com", "10.0.0.1");
+        limiter.acquire("  User@Example.COM ", "10.0.0.2");
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire("USER@EXAMPLE.COM", "10.0.0.3"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.spedine.trackit.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(PasswordHashingConfig.class)
+            .withPropertyValues("security.password.hashing.pool-size=1", "security.password.hashing.queue-capacity=1");
+
+    @Test
+    @DisplayName("Should keep a separate default executor for unqualified async work")
+    void shouldKeepDefaultExecutor() {
+        contextRunner.run(context -> {
+            Object hashing = context.getBean(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR);
+            Object application = context.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME);
+
+            assertNotSame(hashing, application);
+            assertSame(application, context.getBean("taskExecutor"));
+            assertEquals("task-", ((ThreadPoolTaskExecutor) application).getThreadNamePrefix());
+        });
+    }
+
+    @Test
+    @DisplayName("Should reject hashing work once the pool and its queue are full")
+    void shouldRejectWhenQueueIsFull() {
+        contextRunner.run(context -> {
+            ThreadPoolTaskExecutor executor = context.getBean(PasswordHashingConfig.PASSWORD_HASHING_EXECUTOR,
+                    ThreadPoolTaskExecutor.class);
+            CountDownLatch release = new CountDownLatch(1);
+            try {
+                executor.execute(() -> awaitQuietly(release));
+                executor.execute(() -> awaitQuietly(release));
+
+                assertThrows(TaskRejectedException.class, () -> executor.submitCompletable(() -> "hash"));
+            } finally {
+                release.countDown();
+            }
+        });
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
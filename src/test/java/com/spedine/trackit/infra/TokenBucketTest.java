@@ -0,0 +1,46 @@
+package com.spedine.trackit.infra;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    @DisplayName("Should allow bursts up to the capacity and reject the next attempt")
+    void shouldRejectOnceCapacityIsUsed() {
+        TokenBucket bucket = new TokenBucket(3, Duration.ofMinutes(1), 0);
+
+        assertTrue(bucket.tryConsume(0).isZero());
+        assertTrue(bucket.tryConsume(0).isZero());
+        assertTrue(bucket.tryConsume(0).isZero());
+
+        Duration wait = bucket.tryConsume(0);
+        assertFalse(wait.isZero());
+        assertEquals(Duration.ofSeconds(20), wait);
+    }
+
+    @Test
+    @DisplayName("Should refill tokens evenly over the refill period")
+    void shouldRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(2, Duration.ofMinutes(1), 0);
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+
+        assertFalse(bucket.tryConsume(Duration.ofSeconds(10).toNanos()).isZero());
+        assertTrue(bucket.tryConsume(Duration.ofSeconds(40).toNanos()).isZero());
+    }
+
+    @Test
+    @DisplayName("Should never refill above the capacity")
+    void shouldCapTokensAtCapacity() {
+        TokenBucket bucket = new TokenBucket(1, Duration.ofSeconds(1), 0);
+
+        long muchLater = Duration.ofHours(1).toNanos();
+        assertTrue(bucket.tryConsume(muchLater).isZero());
+        assertFalse(bucket.tryConsume(muchLater).isZero());
+    }
+}
@@ -0,0 +1,112 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.ECategory;
+import com.spedine.trackit.model.ECurrency;
+import com.spedine.trackit.model.EPaymentMethod;
+import com.spedine.trackit.model.Expense;
+import com.spedine.trackit.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs without the test transaction: the writes must commit for other threads to see them.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ExpenseRepositoryImpl.class, UserRepositoryImpl.class, ExpenseDailyTotalRepositoryImpl.class,
+        ExpenseChangeVersionRepositoryImpl.class, RepositoryQueryCountTest.MetricsConfig.class})
+class ExpenseChangeVersionConcurrencyTest {
+
+    private static final int THREADS = 4;
+    private static final int WRITES_PER_THREAD = 10;
+
+    @Autowired
+    ExpenseRepository expenseRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ExpenseChangeVersionRepository changeVersions;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("Concurrent User", "versions@example.com", "encodedPassword"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM expense_change_versions WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM expense_daily_totals WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM expenses WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    @DisplayName("Should count every write when the first writes of a user race to create the version")
+    void concurrentFirstWrites_ShouldCountEveryIncrement() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int write = 0; write < WRITES_PER_THREAD; write++) {
+                        // same steps and transaction as ExpenseService.save
+                        transaction.executeWithoutResult(status -> {
+                            expenseRepository.save(newExpense());
+                            changeVersions.increment(user.getId());
+                        });
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(THREADS * WRITES_PER_THREAD, changeVersions.findByUserId(user.getId()));
+    }
+
+    private Expense newExpense() {
+        return new Expense(new BigDecimal("10.00"), "Lunch at the office", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.CREDIT_CARD, user);
+    }
+}
@@ -0,0 +1,138 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.ECategory;
+import com.spedine.trackit.model.ECurrency;
+import com.spedine.trackit.model.EExpenseField;
+import com.spedine.trackit.model.EPaymentMethod;
+import com.spedine.trackit.model.Expense;
+import com.spedine.trackit.model.ExpensePatch;
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.projection.ExpenseSummaryProjection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs without the test transaction: the writes must commit for other threads to see them.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ExpenseRepositoryImpl.class, UserRepositoryImpl.class, ExpenseDailyTotalRepositoryImpl.class,
+        RepositoryQueryCountTest.MetricsConfig.class})
+class ExpenseDailyTotalConcurrencyTest {
+
+    private static final int THREADS = 4;
+    private static final int WRITES_PER_THREAD = 10;
+
+    @Autowired
+    ExpenseRepository expenseRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ExpenseDailyTotalRepository dailyTotals;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    User user;
+    LocalDate day;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("Concurrent User", "concurrent@example.com", "encodedPassword"));
+        day = LocalDate.now().minusDays(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM expense_daily_totals WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM expenses WHERE user_id = ?", user.getId());
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    @DisplayName("Should keep the daily totals exact when the same expense is updated concurrently")
+    void concurrentUpdates_ShouldKeepTotalsExact() throws Exception {
+        Expense stored = expenseRepository.save(newExpense());
+
+        runConcurrently(write -> () -> expenseRepository.update(stored.getId(), user.getId(),
+                new ExpensePatch(BigDecimal.valueOf(write + 1), null, null, null, null, null)));
+
+        BigDecimal amount = expenseRepository.findByIdAndUser_Id(stored.getId(), user.getId(), EExpenseField.ALL).amount();
+        ExpenseSummaryProjection summary = summarizeDay();
+        assertEquals(1, summary.count());
+        assertEquals(0, amount.compareTo(summary.total()));
+    }
+
+    @Test
+    @DisplayName("Should neither miss nor double count expenses created during a rebuild")
+    void rebuild_ShouldNotRaceWithWrites() throws Exception {
+        runConcurrently(write -> write % 2 == 0
+                ? () -> expenseRepository.save(newExpense())
+                : () -> dailyTotals.rebuild(user.getId()));
+
+        ExpenseSummaryProjection summary = summarizeDay();
+        int created = THREADS * WRITES_PER_THREAD / 2;
+        assertEquals(created, summary.count());
+        assertEquals(0, new BigDecimal("10.00").multiply(BigDecimal.valueOf(created)).compareTo(summary.total()));
+    }
+
+    private void runConcurrently(WriteFactory writes) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                int first = thread * WRITES_PER_THREAD;
+                futures.add(executor.submit(() -> {
+                    for (int write = first; write < first + WRITES_PER_THREAD; write++) {
+                        writes.create(write).call();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    // a whole day, so the summary is read from the daily totals only
+    private ExpenseSummaryProjection summarizeDay() {
+        return expenseRepository.summarize(user.getId(), day.atStartOfDay(), day.atTime(LocalTime.MAX));
+    }
+
+    private Expense newExpense() {
+        return new Expense(new BigDecimal("10.00"), "Lunch at the office", LocalDateTime.of(day, LocalTime.NOON),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.CREDIT_CARD, user);
+    }
+
+    private interface WriteFactory {
+        Callable<?> create(int write);
+    }
+}
@@ -0,0 +1,603 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.dto.ExpenseCursor;
+import com.spedine.trackit.dto.ExpenseFilter;
+import com.spedine.trackit.dto.ExpenseResponse;
+import com.spedine.trackit.model.ECategory;
+import com.spedine.trackit.model.ECurrency;
+import com.spedine.trackit.model.EExpenseField;
+import com.spedine.trackit.model.EPaymentMethod;
+import com.spedine.trackit.model.ETimeGranularity;
+import com.spedine.trackit.model.ETimeSeriesSplit;
+import com.spedine.trackit.model.Expense;
+import com.spedine.trackit.model.ExpensePatch;
+import com.spedine.trackit.model.IdempotencyRecord;
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.projection.ExpenseBucketProjection;
+import com.spedine.trackit.projection.ExpenseCategoryProjection;
+import com.spedine.trackit.projection.ExpenseCurrencyProjection;
+import com.spedine.trackit.projection.ExpenseSummaryProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "expenses.bulk.chunk-size=2",
+        "idempotency.table.enabled=true"
+})
+@ActiveProfiles("test")
+@Import({ExpenseRepositoryImpl.class, UserRepositoryImpl.class, ExpenseChangeVersionRepositoryImpl.class,
+        ExpenseDailyTotalRepositoryImpl.class, IdempotencyRecordRepositoryImpl.class, RepositoryQueryCountTest.MetricsConfig.class,
+        RepositoryQueryCountTest.StatementCounter.class})
+class RepositoryQueryCountTest {
+
+    @Autowired
+    ExpenseRepository expenseRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ExpenseChangeVersionRepository changeVersions;
+
+    @Autowired
+    ExpenseDailyTotalRepository dailyTotals;
+
+    @Autowired
+    IdempotencyRecordRepository idempotencyRecords;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    StatementCounter statements;
+
+    Statistics statistics;
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(new User("Test User", "test@example.com", "encodedPassword"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+    }
+
+    @Test
+    @DisplayName("Should create a user with a single INSERT")
+    void saveNewUser_ShouldIssueSingleInsert() {
+        userRepository.save(new User("Other User", "other@example.com", "encodedPassword"));
+        entityManager.flush();
+
+        assertEquals(1, statements.count());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    @DisplayName("Should create an expense with the user lock, one INSERT and one daily total upsert")
+    void saveNewExpense_ShouldIssueSingleInsert() {
+        expenseRepository.save(newExpense());
+        entityManager.flush();
+
+        assertEquals(3, statements.count());
+        assertEquals(1, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    @DisplayName("Should insert a list of expenses through one batched statement and one daily total upsert")
+    void saveAllExpenses_ShouldBatchInserts() {
+        expenseRepository.saveAll(List.of(newExpense(), newExpense(), newExpense(), newExpense(), newExpense()));
+        entityManager.flush();
+
+        assertEquals(5, statistics.getEntityInsertCount());
+        // user lock, batched INSERT, daily total upsert
+        assertEquals(3, statements.count());
+    }
+
+    @Test
+    @DisplayName("Should still update stored expenses instead of inserting them again")
+    void saveStoredExpense_ShouldUpdate() {
+        Expense stored = expenseRepository.save(newExpense());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        stored.setAmount(new BigDecimal("99.90"));
+        expenseRepository.save(stored);
+        entityManager.flush();
+
+        assertEquals(0L, stored.getVersion());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    @DisplayName("Should patch an expense with one UPDATE, its daily total deltas and one re-read")
+    void updateExpense_ShouldIssueUpdateAndReRead() {
+        Expense stored = expenseRepository.save(newExpense());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        ExpenseResponse response = expenseRepository.update(stored.getId(), user.getId(),
+                new ExpensePatch(new BigDecimal("42.00"), null, null, ECategory.HEALTH, null, null));
+
+        // user lock, daily total removal, UPDATE, daily total addition, re-read
+        assertEquals(5, statements.count());
+        assertEquals(0, new BigDecimal("42.00").compareTo(response.amount()));
+        assertEquals(ECategory.HEALTH, response.category());
+        assertEquals(stored.getDescription(), response.description());
+    }
+
+    @Test
+    @DisplayName("Should not patch expenses of another user")
+    void updateExpense_ShouldThrow_WhenNoRowMatches() {
+        Expense stored = expenseRepository.save(newExpense());
+        entityManager.flush();
+
+        ExpensePatch patch = new ExpensePatch(new BigDecimal("42.00"), null, null, null, null, null);
+
+        assertThrows(EntityNotFoundException.class,
+                () -> expenseRepository.update(stored.getId(), UUID.randomUUID(), patch));
+    }
+
+    @Test
+    @DisplayName("Should delete an expense with one DELETE after removing it from the daily totals")
+    void deleteExpense_ShouldIssueSingleDelete() {
+        Expense stored = expenseRepository.save(newExpense());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        expenseRepository.deleteByIdAndUser_Id(stored.getId(), user.getId());
+
+        // user lock, daily total removal, DELETE
+        assertEquals(3, statements.count());
+        assertThrows(EntityNotFoundException.class,
+                () -> expenseRepository.deleteByIdAndUser_Id(stored.getId(), user.getId()));
+    }
+
+    @Test
+    @DisplayName("Should bulk delete only the expenses matching the filter")
+    void deleteAll_ShouldDeleteMatchingExpenses() {
+        expenseRepository.saveAll(List.of(newExpense(), newExpense(), newExpense()));
+        expenseRepository.save(new Expense(new BigDecimal("5.00"), "Bus ticket", LocalDateTime.now().minusHours(1),
+                ECategory.TRANSPORT, ECurrency.BRL, EPaymentMethod.CASH, user));
+        entityManager.flush();
+
+        long deleted = expenseRepository.deleteAll(user.getId(),
+                new ExpenseFilter(null, null, null, null, ECategory.FOOD, null));
+
+        assertEquals(3, deleted);
+        assertEquals(1, expenseRepository.findAll(user, Pageable.unpaged(),
+                new ExpenseFilter(null, null, null, null, null, null), EExpenseField.ALL).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should update every matching expense across chunks, including rows that still match")
+    void updateAll_ShouldUpdateMatchingExpensesInChunks() {
+        List<Expense> expenses = List.of(newExpense(), newExpense(), newExpense(), newExpense(), newExpense());
+        expenseRepository.saveAll(expenses);
+        expenseRepository.save(new Expense(new BigDecimal("10.00"), "Bus ticket", LocalDateTime.now().minusHours(1),
+                ECategory.TRANSPORT, ECurrency.BRL, EPaymentMethod.CASH, user));
+        entityManager.flush();
+
+        long updated = expenseRepository.updateAll(user.getId(),
+                new ExpenseFilter(null, null, null, null, ECategory.FOOD, null),
+                new ExpensePatch(null, null, null, null, ECurrency.USD, null));
+        entityManager.clear();
+
+        assertEquals(5, updated);
+        assertEquals(5, expenseRepository.findAll(user, Pageable.unpaged(),
+                new ExpenseFilter(null, null, null, ECurrency.USD, null, null), EExpenseField.ALL).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Should walk every expense once with keyset pages, including equal dates")
+    void findAfter_ShouldSeekPastCursor() {
+        LocalDateTime sameDate = LocalDateTime.now().minusDays(1).withNano(0);
+        List<Expense> expenses = List.of(newExpense(), newExpense(sameDate), newExpense(sameDate),
+                newExpense(sameDate), newExpense(sameDate.minusDays(1)));
+        expenseRepository.saveAll(expenses);
+        entityManager.flush();
+        ExpenseFilter noFilter = new ExpenseFilter(null, null, null, null, null, null);
+
+        List<UUID> seen = new ArrayList<>();
+        ExpenseCursor cursor = null;
+        List<ExpenseResponse> page;
+        do {
+            page = expenseRepository.findAfter(user.getId(), noFilter, cursor, 2);
+            page.forEach(expense -> seen.add(expense.id()));
+            if (!page.isEmpty()) {
+                ExpenseResponse last = page.get(page.size() - 1);
+                cursor = new ExpenseCursor(last.expenseDate(), last.id());
+            }
+        } while (page.size() == 2);
+
+        assertEquals(5, seen.size());
+        assertEquals(5, new HashSet<>(seen).size());
+        assertEquals(expenses.get(0).getId(), seen.get(0));
+        assertEquals(expenses.get(4).getId(), seen.get(4));
+    }
+
+    @Test
+    @DisplayName("Should read a page of responses without loading users")
+    void findAll_ShouldNotTouchUsers() {
+        expenseRepository.saveAll(List.of(newExpense(), newExpense(), newExpense()));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        Page<ExpenseResponse> page = expenseRepository.findAll(user, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "expenseDate")),
+                new ExpenseFilter(null, null, null, null, ECategory.FOOD, null), EExpenseField.ALL);
+        ExpenseResponse single = expenseRepository.findByIdAndUser_Id(page.getContent().get(0).id(), user.getId(), EExpenseField.ALL);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, page.getTotalElements());
+        assertEquals(page.getContent().get(0), single);
+        assertEquals(3, statements.count());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Should only fill the requested fields")
+    void findAll_ShouldSelectRequestedFields() {
+        Expense expense = newExpense();
+        expenseRepository.save(expense);
+        entityManager.flush();
+        Set<EExpenseField> fields = EnumSet.of(EExpenseField.ID, EExpenseField.AMOUNT);
+
+        ExpenseResponse listed = expenseRepository.findAll(user, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "expenseDate")),
+                new ExpenseFilter(null, null, null, null, null, null), fields).getContent().get(0);
+        ExpenseResponse single = expenseRepository.findByIdAndUser_Id(expense.getId(), user.getId(), fields);
+
+        assertEquals(expense.getId(), listed.id());
+        assertEquals(0, expense.getAmount().compareTo(listed.amount()));
+        assertNull(listed.description());
+        assertNull(listed.category());
+        assertEquals(listed, single);
+    }
+
+    @Test
+    @DisplayName("Should look up many expenses with a single query, ignoring other users' ones")
+    void findAllByIdIn_ShouldIssueSingleSelect() {
+        User other = userRepository.save(new User("Other User", "other@example.com", "encodedPassword"));
+        List<Expense> expenses = List.of(newExpense(), newExpense(), newExpense());
+        expenseRepository.saveAll(expenses);
+        Expense foreign = new Expense(new BigDecimal("10.00"), "Lunch at the office", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.CREDIT_CARD, other);
+        expenseRepository.save(foreign);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        statements.clear();
+
+        List<ExpenseResponse> found = expenseRepository.findAllByIdInAndUser_Id(
+                List.of(expenses.get(0).getId(), expenses.get(2).getId(), foreign.getId()), user.getId(), EExpenseField.ALL);
+
+        assertEquals(Set.of(expenses.get(0).getId(), expenses.get(2).getId()),
+                found.stream().map(ExpenseResponse::id).collect(Collectors.toSet()));
+        assertEquals(1, statements.count());
+    }
+
+    @Test
+    @DisplayName("Should build every section of the summary from one query")
+    void summarize_ShouldIssueSingleQuery() {
+        LocalDateTime expenseDate = LocalDateTime.now().minusDays(1);
+        expenseRepository.saveAll(List.of(
+                newExpense(expenseDate),
+                newExpense(expenseDate),
+                new Expense(new BigDecimal("25.50"), "Bus ticket", expenseDate,
+                        ECategory.TRANSPORT, ECurrency.USD, EPaymentMethod.CASH, user),
+                newExpense(expenseDate.minusMonths(2))
+        ));
+        entityManager.flush();
+        statements.clear();
+
+        ExpenseSummaryProjection summary = expenseRepository.summarize(user.getId(),
+                expenseDate.minusDays(1), expenseDate.plusHours(1));
+
+        assertEquals(1, statements.count());
+        assertEquals(3, summary.count());
+        assertEquals(0, new BigDecimal("45.50").compareTo(summary.total()));
+        assertEquals(List.of(ECategory.TRANSPORT, ECategory.FOOD),
+                summary.totalsByCategory().stream().map(ExpenseCategoryProjection::getCategory).toList());
+        assertEquals(2, summary.totalsByCategory().get(1).getCount());
+        assertEquals(List.of(ECurrency.USD, ECurrency.BRL),
+                summary.totalsByCurrency().stream().map(ExpenseCurrencyProjection::getCurrency).toList());
+        assertEquals(EPaymentMethod.CREDIT_CARD, summary.mostUsedPaymentMethod().method());
+        assertEquals(2L, summary.mostUsedPaymentMethod().usageCount().longValue());
+    }
+
+    @Test
+    @DisplayName("Should keep the daily totals in step with saves, updates and deletes")
+    void dailyTotals_ShouldFollowWrites() {
+        LocalDateTime noon = LocalDate.now().minusDays(3).atTime(12, 0);
+        Expense kept = newExpense(noon);
+        Expense changed = newExpense(noon);
+        Expense deleted = newExpense(noon.minusDays(1));
+        expenseRepository.saveAll(List.of(kept, changed, deleted));
+        expenseRepository.update(changed.getId(), user.getId(),
+                new ExpensePatch(new BigDecimal("30.00"), null, null, ECategory.TRANSPORT, null, null));
+        expenseRepository.deleteByIdAndUser_Id(deleted.getId(), user.getId());
+        LocalDateTime start = noon.toLocalDate().minusDays(5).atStartOfDay();
+        LocalDateTime end = noon.toLocalDate().atTime(LocalTime.MAX);
+
+        ExpenseSummaryProjection summary = expenseRepository.summarize(user.getId(), start, end);
+
+        assertEquals(2, summary.count());
+        assertEquals(0, new BigDecimal("40.00").compareTo(summary.total()));
+        assertEquals(List.of(ECategory.TRANSPORT, ECategory.FOOD),
+                summary.totalsByCategory().stream().map(ExpenseCategoryProjection::getCategory).toList());
+        dailyTotals.rebuild(user.getId());
+        assertEquals(summary, expenseRepository.summarize(user.getId(), start, end));
+    }
+
+    @Test
+    @DisplayName("Should read partial days at the edges of the range from the expenses")
+    void summarize_ShouldHonorPartialEdgeDays() {
+        LocalDateTime noon = LocalDate.now().minusDays(3).atTime(12, 0);
+        expenseRepository.saveAll(List.of(newExpense(noon), newExpense(noon.minusDays(1)), newExpense(noon.minusDays(2))));
+
+        assertEquals(3, expenseRepository.summarize(user.getId(), noon.minusDays(2).minusMinutes(1), noon).count());
+        assertEquals(2, expenseRepository.summarize(user.getId(), noon.minusDays(2).plusMinutes(1), noon).count());
+        assertEquals(1, expenseRepository.summarize(user.getId(), noon.minusDays(2).plusMinutes(1), noon.minusMinutes(1)).count());
+        assertEquals(0, expenseRepository.summarize(user.getId(), noon.minusMinutes(1), noon.minusSeconds(1)).count());
+    }
+
+    @Test
+    @DisplayName("Should summarize an empty range as zero")
+    void summarize_ShouldBeZeroWithoutExpenses() {
+        ExpenseSummaryProjection summary = expenseRepository.summarize(user.getId(),
+                LocalDateTime.now().minusDays(1), LocalDateTime.now());
+
+        assertEquals(0, summary.count());
+        assertEquals(0, BigDecimal.ZERO.compareTo(summary.total()));
+        assertTrue(summary.totalsByCategory().isEmpty());
+        assertNull(summary.mostUsedPaymentMethod());
+    }
+
+    @Test
+    @DisplayName("Should bucket the filtered expenses by month in one query")
+    void timeSeries_ShouldGroupByMonth() {
+        expenseRepository.saveAll(List.of(
+                newExpense(LocalDateTime.of(2025, 1, 15, 12, 0)),
+                newExpense(LocalDateTime.of(2025, 1, 20, 9, 30)),
+                newExpense(LocalDateTime.of(2025, 3, 3, 18, 45))
+        ));
+
+        List<ExpenseBucketProjection> buckets = expenseRepository.timeSeries(user.getId(),
+                new ExpenseFilter(null, null, null, null, ECategory.FOOD, null), ETimeGranularity.MONTH, ETimeSeriesSplit.CURRENCY);
+
+        assertEquals(2, buckets.size());
+        assertEquals(LocalDate.of(2025, 1, 1), buckets.get(0).bucket());
+        assertEquals("BRL", buckets.get(0).series());
+        assertEquals(2, buckets.get(0).count());
+        assertEquals(0, new BigDecimal("20.00").compareTo(buckets.get(0).total()));
+        assertEquals(LocalDate.of(2025, 3, 1), buckets.get(1).bucket());
+
+        List<ExpenseBucketProjection> january = expenseRepository.timeSeries(user.getId(),
+                new ExpenseFilter("2025-01", null, null, null, null, null), ETimeGranularity.DAY, null);
+
+        assertEquals(2, january.size());
+        assertNull(january.get(0).series());
+        assertEquals(LocalDate.of(2025, 1, 15), january.get(0).bucket());
+    }
+
+    @Test
+    @DisplayName("Should select the same expenses in the time series as in the listing for every filter field")
+    void timeSeries_ShouldMatchSpecificationFilters() {
+        expenseRepository.saveAll(List.of(
+                new Expense(new BigDecimal("10.00"), "Lunch at the office", LocalDateTime.of(2025, 1, 10, 12, 0),
+                        ECategory.FOOD, ECurrency.BRL, EPaymentMethod.CREDIT_CARD, user),
+                new Expense(new BigDecimal("25.50"), "Bus ticket", LocalDateTime.of(2025, 1, 31, 23, 59, 59),
+                        ECategory.TRANSPORT, ECurrency.USD, EPaymentMethod.CASH, user),
+                new Expense(new BigDecimal("40.00"), "Monthly rent", LocalDateTime.of(2025, 2, 1, 0, 0),
+                        ECategory.RENT, ECurrency.BRL, EPaymentMethod.PIX, user),
+                new Expense(new BigDecimal("7.25"), "Coffee", LocalDateTime.of(2025, 3, 15, 8, 0),
+                        ECategory.FOOD, ECurrency.USD, EPaymentMethod.PIX, user)
+        ));
+        entityManager.flush();
+        List<ExpenseFilter> filters = List.of(
+                new ExpenseFilter(null, null, null, null, null, null),
+                new ExpenseFilter("2025-01", null, null, null, null, null),
+                new ExpenseFilter("2025-01", LocalDateTime.of(2025, 2, 1, 0, 0), null, null, null, null),
+                new ExpenseFilter(null, LocalDateTime.of(2025, 1, 31, 23, 59, 59), null, null, null, null),
+                new ExpenseFilter(null, null, LocalDateTime.of(2025, 2, 1, 0, 0), null, null, null),
+                new ExpenseFilter(null, LocalDateTime.of(2025, 1, 10, 12, 0), LocalDateTime.of(2025, 2, 1, 0, 0), null, null, null),
+                new ExpenseFilter(null, null, null, ECurrency.USD, null, null),
+                new ExpenseFilter(null, null, null, null, ECategory.FOOD, null),
+                new ExpenseFilter(null, null, null, null, null, EPaymentMethod.PIX),
+                new ExpenseFilter(null, null, null, ECurrency.BRL, ECategory.RENT, EPaymentMethod.PIX)
+        );
+        // a new filter field must be added above, so both query paths are compared on it
+        for (RecordComponent component : ExpenseFilter.class.getRecordComponents()) {
+            assertTrue(filters.stream().anyMatch(filter -> componentValue(component, filter) != null),
+                    "No filter sets " + component.getName());
+        }
+
+        for (ExpenseFilter filter : filters) {
+            List<ExpenseResponse> listed = expenseRepository.findAll(user, Pageable.unpaged(), filter, EExpenseField.ALL).getContent();
+            List<ExpenseBucketProjection> buckets = expenseRepository.timeSeries(user.getId(), filter, ETimeGranularity.DAY, null);
+
+            assertEquals(listed.size(), buckets.stream().mapToLong(ExpenseBucketProjection::count).sum(), filter.toString());
+            assertEquals(0, listed.stream().map(ExpenseResponse::amount).reduce(BigDecimal.ZERO, BigDecimal::add)
+                    .compareTo(buckets.stream().map(ExpenseBucketProjection::total).reduce(BigDecimal.ZERO, BigDecimal::add)),
+                    filter.toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Should start the change version at zero, see every local increment and serve repeated reads from memory")
+    void changeVersion_ShouldIncrementAndCache() {
+        UUID userId = user.getId();
+
+        assertEquals(0L, changeVersions.findByUserId(userId));
+        changeVersions.increment(userId);
+        changeVersions.increment(userId);
+
+        assertEquals(2L, changeVersions.findByUserId(userId));
+        statements.clear();
+        assertEquals(2L, changeVersions.findByUserId(userId));
+        assertEquals(0, statements.count());
+    }
+
+    @Test
+    @DisplayName("Should insert new users and report the emails that are already registered")
+    void insertAllUsers_ShouldSkipRegisteredEmails() {
+        User duplicate = new User("Other User", user.getEmail(), "otherPassword");
+        User created = new User("New User", "new@example.com", "encodedPassword");
+
+        Set<String> skipped = userRepository.insertAll(List.of(duplicate, created));
+
+        assertEquals(Set.of(user.getEmail()), skipped);
+        assertEquals(created.getId(), userRepository.findByEmail("new@example.com").getId());
+        assertEquals(user.getId(), userRepository.findByEmail(user.getEmail()).getId());
+    }
+
+    @Test
+    @DisplayName("Should replace an expired idempotency record that was not cleaned up yet")
+    void saveIdempotencyRecord_ShouldReplaceExpiredRecord() {
+        idempotencyRecords.save(new IdempotencyRecord(user.getId(), "key-1", "old-hash", "{}",
+                LocalDateTime.now().minusDays(2)));
+
+        idempotencyRecords.save(new IdempotencyRecord(user.getId(), "key-1", "new-hash", "{}", LocalDateTime.now()));
+
+        assertEquals("new-hash", idempotencyRecords.find(user.getId(), "key-1").orElseThrow().requestHash());
+    }
+
+    private static Object componentValue(RecordComponent component, ExpenseFilter filter) {
+        try {
+            return component.getAccessor().invoke(filter);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Expense newExpense(LocalDateTime expenseDate) {
+        return new Expense(new BigDecimal("10.00"), "Lunch at the office", expenseDate,
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.CREDIT_CARD, user);
+    }
+
+    private Expense newExpense() {
+        return new Expense(
+                new BigDecimal("10.00"),
+                "Lunch at the office",
+                LocalDateTime.now().minusHours(1),
+                ECategory.FOOD,
+                ECurrency.BRL,
+                EPaymentMethod.CREDIT_CARD,
+                user
+        );
+    }
+
+    /**
+     * Counts the statements prepared on any connection of the data source, so JDBC template
+     * statements are counted next to the ones Hibernate issues.
+     */
+    static class StatementCounter implements BeanPostProcessor {
+
+        private final AtomicInteger statements = new AtomicInteger();
+
+        int count() {
+            return statements.get();
+        }
+
+        void clear() {
+            statements.set(0);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            return new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return counting(super.getConnection());
+                }
+
+                @Override
+                public Connection getConnection(String username, String password) throws SQLException {
+                    return counting(super.getConnection(username, password));
+                }
+            };
+        }
+
+        private Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")) {
+                            statements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.spedine.trackit.repository;
+
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.model.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserRepositoryImplTest {
+
+    @Mock
+    UserJpaRepository userJpaRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    UserRepositoryImpl userRepository;
+    User user;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new UserRepositoryImpl(userJpaRepository, jdbcTemplate, 500, 100, Duration.ofMinutes(10),
+                Duration.ofMinutes(1), new SimpleMeterRegistry());
+        user = new User("Test User", "test@example.com", "encodedPassword");
+    }
+
+    @Test
+    @DisplayName("Should query the database once for repeated lookups of the same email")
+    void shouldCacheLookupsByEmail() {
+        when(userJpaRepository.findUserEntityByEmail(user.getEmail())).thenReturn(UserEntity.fromDomain(user));
+
+        userRepository.loadUserByUsername(user.getEmail());
+        User found = userRepository.findByEmail(user.getEmail());
+        boolean exists = userRepository.existsByEmail(user.getEmail());
+
+        assertEquals(user.getId(), found.getId());
+        assertTrue(exists);
+        verify(userJpaRepository, times(1)).findUserEntityByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should cache unknown emails as absent")
+    void shouldCacheMisses() {
+        when(userJpaRepository.findUserEntityByEmail(user.getEmail())).thenReturn(null);
+
+        assertNull(userRepository.findByEmail(user.getEmail()));
+        assertFalse(userRepository.existsByEmail(user.getEmail()));
+
+        verify(userJpaRepository, times(1)).findUserEntityByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should invalidate the cached entry when the user is saved")
+    void saveShouldInvalidateCachedEntry() {
+        when(userJpaRepository.findUserEntityByEmail(user.getEmail()))
+                .thenReturn(null)
+                .thenReturn(UserEntity.fromDomain(user));
+
+        assertFalse(userRepository.existsByEmail(user.getEmail()));
+        userRepository.save(user);
+
+        assertTrue(userRepository.existsByEmail(user.getEmail()));
+        verify(userJpaRepository).save(any(UserEntity.class));
+        verify(userJpaRepository, times(2)).findUserEntityByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should hand every caller its own copy of the cached user")
+    void shouldNotShareCachedUser() {
+        when(userJpaRepository.findUserEntityByEmail(user.getEmail())).thenReturn(UserEntity.fromDomain(user));
+
+        UserEntity details = (UserEntity) userRepository.loadUserByUsername(user.getEmail());
+        details.setPassword("{bcrypt}changedByCaller");
+        userRepository.findByEmail(user.getEmail()).setPassword("{bcrypt}changedByAnotherCaller");
+
+        assertNotSame(details, userRepository.loadUserByUsername(user.getEmail()));
+        assertEquals("encodedPassword", userRepository.loadUserByUsername(user.getEmail()).getPassword());
+        assertEquals("encodedPassword", userRepository.findByEmail(user.getEmail()).getPassword());
+        verify(userJpaRepository, times(1)).findUserEntityByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should store the upgraded hash and drop the cached user")
+    void updatePasswordShouldPersistNewHash() {
+        UserEntity stored = UserEntity.fromDomain(user);
+        when(userJpaRepository.findUserEntityByEmail(user.getEmail())).thenReturn(stored);
+        userRepository.loadUserByUsername(user.getEmail());
+
+        UserDetails updated = userRepository.updatePassword(stored, "{bcrypt}upgradedHash");
+
+        assertEquals("{bcrypt}upgradedHash", updated.getPassword());
+        verify(userJpaRepository).save(stored);
+        userRepository.loadUserByUsername(user.getEmail());
+        verify(userJpaRepository, times(3)).findUserEntityByEmail(user.getEmail());
+    }
+
+    @Test
+    @DisplayName("Should batch insert users and drop their cached misses")
+    void insertAllShouldBatchAndInvalidateMisses() {
+        when(userJpaRepository.findUserEntityByEmail(user.getEmail()))
+                .thenReturn(null)
+                .thenReturn(UserEntity.fromDomain(user));
+        assertFalse(userRepository.existsByEmail(user.getEmail()));
+        when(jdbcTemplate.batchUpdate(anyString(), eq(List.of(user)), eq(500), any())).thenReturn(new int[][]{{1}});
+
+        assertTrue(userRepository.insertAll(List.of(user)).isEmpty());
+
+        assertTrue(userRepository.existsByEmail(user.getEmail()));
+        verify(userJpaRepository, never()).findIdsIn(any());
+    }
+
+    @Test
+    @DisplayName("Should report users skipped because their email was registered concurrently")
+    void insertAllShouldReportSkippedUsers() {
+        User taken = new User("Taken User", "taken@example.com", "encodedPassword");
+        when(jdbcTemplate.batchUpdate(anyString(), eq(List.of(user, taken)), eq(500), any()))
+                .thenReturn(new int[][]{{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO}});
+        when(userJpaRepository.findIdsIn(List.of(user.getId(), taken.getId()))).thenReturn(Set.of(user.getId()));
+
+        assertEquals(Set.of("taken@example.com"), userRepository.insertAll(List.of(user, taken)));
+    }
+
+    @Test
+    @DisplayName("Should not query for existing emails when none are given")
+    void findExistingEmailsShouldSkipEmptyInput() {
+        assertTrue(userRepository.findExistingEmails(List.of()).isEmpty());
+        verifyNoInteractions(userJpaRepository);
+    }
+}
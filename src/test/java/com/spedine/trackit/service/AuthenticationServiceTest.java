@@ -1,5 +1,6 @@
 package com.spedine.trackit.service;
 
+import com.spedine.trackit.dto.TokenResponse;
 import com.spedine.trackit.dto.UserLoginRequest;
 import com.spedine.trackit.model.User;
 import com.spedine.trackit.model.UserEntity;
@@ -25,7 +26,7 @@ class AuthenticationServiceTest {
     private AuthenticationManager authenticationManager;
 
     @Mock
-    private TokenService tokenService;
+    private RefreshTokenService refreshTokenService;
 
     @Mock
     private Authentication authentication;
@@ -50,32 +51,32 @@ class AuthenticationServiceTest {
     @Test
     @DisplayName("Should authenticate and generate token when valid credentials are provided")
     void authenticateAndGenerateToken_ShouldReturnToken_WhenValidCredentials() {
-        String expectedToken = "jwt.token.here";
+        TokenResponse expectedToken = new TokenResponse("jwt.token.here", "refresh.token.here", 900);
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userEntity);
-        when(tokenService.genToken(any(User.class))).thenReturn(expectedToken);
+        when(refreshTokenService.startSession(any(User.class))).thenReturn(expectedToken);
 
-        String actualToken = authenticationService.authenticateAndGenerateToken(loginRequest);
+        TokenResponse actualToken = authenticationService.authenticateAndGenerateToken(loginRequest).join();
 
         assertEquals(expectedToken, actualToken);
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(tokenService).genToken(any(User.class));
+        verify(refreshTokenService).startSession(any(User.class));
     }
 
     @Test
     @DisplayName("Should create correct authentication token with provided credentials")
     void authenticateAndGenerateToken_ShouldCreateCorrectAuthenticationToken() {
-        String expectedToken = "jwt.token.here";
+        TokenResponse expectedToken = new TokenResponse("jwt.token.here", "refresh.token.here", 900);
 
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userEntity);
-        when(tokenService.genToken(any(User.class))).thenReturn(expectedToken);
+        when(refreshTokenService.startSession(any(User.class))).thenReturn(expectedToken);
 
-        authenticationService.authenticateAndGenerateToken(loginRequest);
+        authenticationService.authenticateAndGenerateToken(loginRequest).join();
 
         verify(authenticationManager).authenticate(argThat(token ->
                 token instanceof UsernamePasswordAuthenticationToken &&
@@ -0,0 +1,45 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.repository.ExpenseChangeVersionRepository;
+import com.spedine.trackit.repository.ExpenseDailyTotalRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseDailyTotalServiceTest {
+
+    @Mock
+    ExpenseDailyTotalRepository dailyTotals;
+
+    @Mock
+    ExpenseChangeVersionRepository changeVersions;
+
+    @InjectMocks
+    ExpenseDailyTotalService dailyTotalService;
+
+    @Test
+    @DisplayName("Should rebuild the totals of every user and invalidate their cached reads")
+    void rebuildAll() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(dailyTotals.findUserIds()).thenReturn(List.of(first, second));
+        when(dailyTotals.rebuild(any())).thenReturn(3);
+
+        assertEquals(2, dailyTotalService.rebuildAll());
+
+        verify(dailyTotals).rebuild(first);
+        verify(dailyTotals).rebuild(second);
+        verify(changeVersions).increment(first);
+        verify(changeVersions).increment(second);
+    }
+}
@@ -2,27 +2,37 @@ package com.spedine.trackit.service;
 
 import com.spedine.trackit.dto.*;
 import com.spedine.trackit.model.*;
+import com.spedine.trackit.projection.ExpenseBucketProjection;
 import com.spedine.trackit.projection.ExpenseCategoryProjection;
-import com.spedine.trackit.projection.ExpenseCountAndTotalProjection;
 import com.spedine.trackit.projection.ExpenseCurrencyProjection;
+import com.spedine.trackit.projection.ExpenseSummaryProjection;
+import com.spedine.trackit.repository.ExpenseChangeVersionRepository;
 import com.spedine.trackit.repository.ExpenseRepository;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
 
@@ -36,6 +46,12 @@ class ExpenseServiceTest {
     @Mock
     ExpenseRepository expenseRepository;
 
+    @Mock
+    ExpenseChangeVersionRepository changeVersions;
+
+    @Spy
+    ExpenseSummaryCache summaryCache = new ExpenseSummaryCache(Duration.ofMinutes(1), 100, new SimpleMeterRegistry());
+
     @InjectMocks
     ExpenseService expenseService;
 
@@ -84,6 +100,7 @@ class ExpenseServiceTest {
         expenseService.save(createBody, user);
 
         verify(expenseRepository, times(1)).save(any(Expense.class));
+        verify(changeVersions).increment(user.getId());
     }
 
     @Test
@@ -108,14 +125,113 @@ class ExpenseServiceTest {
                 user
         );
 
-        Page<Expense> page = new PageImpl<>(List.of(expense));
-        when(expenseRepository.findAll(eq(user), any(Pageable.class), eq(filter))).thenReturn(page);
+        Page<ExpenseResponse> page = new PageImpl<>(List.of(ExpenseResponse.fromDomain(expense)));
+        when(expenseRepository.findAll(eq(user), any(Pageable.class), eq(filter), eq(EExpenseField.ALL))).thenReturn(page);
 
         PageResponse<ExpenseResponse> result = expenseService.findAll(user, 0, 10, filter);
 
-        assertEquals(1, result.totalElements());
+        assertEquals(1L, result.totalElements().longValue());
         assertEquals(ExpenseResponse.fromDomain(expense), result.content().get(0));
-        assertEquals(1, result.totalPages());
+        assertEquals(1, result.totalPages().intValue());
+    }
+
+    @Test
+    @DisplayName("Should skip the count query when counting is disabled")
+    void findAllWithoutCount() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+        Expense expense = new Expense(BigDecimal.TEN, "Some expense", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX, user);
+        when(expenseRepository.findSlice(eq(user), any(Pageable.class), eq(filter), eq(EExpenseField.ALL)))
+                .thenReturn(new SliceImpl<>(List.of(ExpenseResponse.fromDomain(expense)), PageRequest.of(0, 1), true));
+
+        PageResponse<ExpenseResponse> result = expenseService.findAll(user, 0, 1, filter, ECountMode.NONE, EExpenseField.ALL);
+
+        assertTrue(result.hasNext());
+        assertNull(result.totalElements());
+        assertNull(result.totalPages());
+        verify(expenseRepository, never()).findAll(any(), any(), any(), any());
+        verify(expenseRepository, never()).estimateCount(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should never report an estimate below the rows already seen")
+    void findAllWithEstimatedCount() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+        Expense expense = new Expense(BigDecimal.TEN, "Some expense", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX, user);
+        when(expenseRepository.findSlice(eq(user), any(Pageable.class), eq(filter), eq(EExpenseField.ALL)))
+                .thenReturn(new SliceImpl<>(List.of(ExpenseResponse.fromDomain(expense)), PageRequest.of(2, 1), true));
+        when(expenseRepository.estimateCount(user.getId(), filter)).thenReturn(1L);
+
+        PageResponse<ExpenseResponse> result = expenseService.findAll(user, 2, 1, filter, ECountMode.ESTIMATE, EExpenseField.ALL);
+
+        assertTrue(result.estimated());
+        assertEquals(4L, result.totalElements().longValue());
+        assertEquals(4, result.totalPages().intValue());
+    }
+
+    @Test
+    @DisplayName("Should parse count modes case-insensitively and reject unknown ones")
+    void parseCountMode() {
+        assertEquals(ECountMode.ESTIMATE, ECountMode.from("estimate"));
+        assertEquals(ECountMode.NONE, ECountMode.from("NONE"));
+        assertThrows(IllegalArgumentException.class, () -> ECountMode.from("approximate"));
+    }
+
+    @Test
+    @DisplayName("Should return looked up expenses in request order and report missing IDs")
+    void findAllByIds() {
+        Expense first = new Expense(BigDecimal.ONE, "First expense", LocalDateTime.now().minusHours(2),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX, user);
+        Expense second = new Expense(BigDecimal.TEN, "Second expense", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX, user);
+        UUID unknown = UUID.randomUUID();
+        when(expenseRepository.findAllByIdInAndUser_Id(any(), eq(user.getId()), eq(EnumSet.of(EExpenseField.ID, EExpenseField.AMOUNT))))
+                .thenReturn(List.of(ExpenseResponse.fromDomain(first), ExpenseResponse.fromDomain(second)));
+
+        ExpenseLookupResponse response = expenseService.findAllByIds(
+                List.of(second.getId(), unknown, first.getId(), second.getId()), user, EnumSet.of(EExpenseField.AMOUNT));
+
+        assertEquals(List.of(second.getId(), first.getId()), response.expenses().stream().map(ExpenseResponse::id).toList());
+        assertEquals(List.of(unknown), response.missing());
+    }
+
+    @Test
+    @DisplayName("Should parse comma-separated fields, skipping blank entries, and reject unknown or empty selections")
+    void parseExpenseFields() {
+        assertEquals(EExpenseField.ALL, EExpenseField.parse(null));
+        assertEquals(EnumSet.of(EExpenseField.ID, EExpenseField.EXPENSE_DATE), EExpenseField.parse("id, expenseDate"));
+        assertThrows(IllegalArgumentException.class, () -> EExpenseField.parse("id,user"));
+        assertEquals(EnumSet.of(EExpenseField.AMOUNT), EExpenseField.parse(",amount, ,"));
+        assertThrows(IllegalArgumentException.class, () -> EExpenseField.parse(","));
+        assertThrows(IllegalArgumentException.class, () -> EExpenseField.parse(" , "));
+    }
+
+    @Test
+    @DisplayName("Should return a cursor when more expenses follow the page")
+    void scrollExpenses() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+        Expense first = new Expense(BigDecimal.TEN, "First expense", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX, user);
+        Expense second = new Expense(BigDecimal.TEN, "Second expense", LocalDateTime.now().minusHours(2),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX, user);
+        when(expenseRepository.findAfter(user.getId(), filter, null, 2))
+                .thenReturn(List.of(ExpenseResponse.fromDomain(first), ExpenseResponse.fromDomain(second)));
+
+        CursorPageResponse<ExpenseResponse> page = expenseService.scroll(user, 1, null, filter);
+
+        assertEquals(List.of(ExpenseResponse.fromDomain(first)), page.content());
+        assertTrue(page.hasNext());
+        assertEquals(new ExpenseCursor(first.getExpenseDate(), first.getId()), ExpenseCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void scrollExpensesWithInvalidCursor() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> expenseService.scroll(user, 10, "not-a-cursor", filter));
+        verifyNoInteractions(expenseRepository);
     }
 
     @Test
@@ -123,19 +239,6 @@ class ExpenseServiceTest {
     void updateExpense() {
         UUID expenseId = UUID.randomUUID();
 
-        // Create existing expense using domain constructor
-        Expense existingExpense = new Expense(
-                expenseId,
-                LocalDateTime.now().minusDays(2),
-                BigDecimal.valueOf(50),
-                "Old Description",
-                LocalDateTime.now().minusDays(1),
-                ECategory.HEALTH,
-                ECurrency.USD,
-                EPaymentMethod.CREDIT_CARD,
-                user
-        );
-
         UpdateExpenseRequest updateBody = new UpdateExpenseRequest(
                 BigDecimal.valueOf(100),
                 "Updated Description",
@@ -144,64 +247,66 @@ class ExpenseServiceTest {
                 ECurrency.BRL,
                 EPaymentMethod.BANK_TRANSFER
         );
+        ExpenseResponse updated = new ExpenseResponse(
+                expenseId,
+                updateBody.amount(),
+                updateBody.description(),
+                updateBody.expenseDate(),
+                LocalDateTime.now().minusDays(2),
+                updateBody.category(),
+                updateBody.currency(),
+                updateBody.paymentMethod()
+        );
+        ExpensePatch expectedPatch = new ExpensePatch(
+                updateBody.amount(),
+                updateBody.description(),
+                updateBody.expenseDate(),
+                updateBody.category(),
+                updateBody.currency(),
+                updateBody.paymentMethod()
+        );
 
-        when(expenseRepository.findByIdAndUser_Id(expenseId, user.getId()))
-                .thenReturn(existingExpense);
-        when(expenseRepository.save(any(Expense.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(expenseRepository.update(expenseId, user.getId(), expectedPatch)).thenReturn(updated);
 
         ExpenseResponse response = expenseService.update(expenseId, updateBody, user);
 
-        assertNotNull(response);
-        assertEquals(updateBody.amount(), response.amount());
-        assertEquals(updateBody.description(), response.description());
-        assertEquals(updateBody.expenseDate(), response.expenseDate());
-        assertEquals(updateBody.category(), response.category());
-        assertEquals(updateBody.currency(), response.currency());
-        assertEquals(updateBody.paymentMethod(), response.paymentMethod());
-
-        verify(expenseRepository).findByIdAndUser_Id(expenseId, user.getId());
-        verify(expenseRepository).save(existingExpense);
+        assertEquals(updated, response);
+        verify(expenseRepository).update(expenseId, user.getId(), expectedPatch);
+        verify(expenseRepository, never()).findByIdAndUser_Id(any(), any(), any());
+        verify(expenseRepository, never()).save(any(Expense.class));
     }
 
     @Test
-    @DisplayName("Should not change existing data when fields are null in the update request")
+    @DisplayName("Should neither write nor move the change version when the update request has no fields")
     void updateExpenseWithNullFields() {
         UUID expenseId = UUID.randomUUID();
 
-        Expense existingExpense = new Expense(
-                expenseId,
-                LocalDateTime.now().minusDays(2),
-                BigDecimal.valueOf(50),
-                "Old Description",
-                LocalDateTime.now().minusDays(1),
-                ECategory.HEALTH,
-                ECurrency.USD,
-                EPaymentMethod.CREDIT_CARD,
-                user
-        );
-
         UpdateExpenseRequest updateBody = new UpdateExpenseRequest(
                 null, null, null, null, null, null
         );
 
-        when(expenseRepository.findByIdAndUser_Id(expenseId, user.getId()))
-                .thenReturn(existingExpense);
-        when(expenseRepository.save(any(Expense.class)))
-                .thenAnswer(invocation -> invocation.getArgument(0));
+        ExpenseResponse current = new ExpenseResponse(expenseId, BigDecimal.TEN, "Lunch", LocalDateTime.now().minusDays(1),
+                LocalDateTime.now().minusDays(1), ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX);
+        when(expenseRepository.findByIdAndUser_Id(expenseId, user.getId(), EExpenseField.ALL)).thenReturn(current);
 
-        ExpenseResponse response = expenseService.update(expenseId, updateBody, user);
+        assertEquals(current, expenseService.update(expenseId, updateBody, user));
+
+        verify(expenseRepository, never()).update(any(), any(), any());
+        verify(changeVersions, never()).increment(any());
+    }
 
-        assertNotNull(response);
-        assertEquals(existingExpense.getAmount(), response.amount());
-        assertEquals(existingExpense.getDescription(), response.description());
-        assertEquals(existingExpense.getExpenseDate(), response.expenseDate());
-        assertEquals(existingExpense.getCategory(), response.category());
-        assertEquals(existingExpense.getCurrency(), response.currency());
-        assertEquals(existingExpense.getPaymentMethod(), response.paymentMethod());
+    @Test
+    @DisplayName("Should propagate not found when the expense belongs to a different user")
+    void updateExpenseFromDifferentUser() {
+        UUID expenseId = UUID.randomUUID();
+        UpdateExpenseRequest updateBody = new UpdateExpenseRequest(
+                BigDecimal.valueOf(100), null, null, null, null, null
+        );
+
+        when(expenseRepository.update(eq(expenseId), eq(user2.getId()), any(ExpensePatch.class)))
+                .thenThrow(new EntityNotFoundException("Expense not found for id: " + expenseId));
 
-        verify(expenseRepository).findByIdAndUser_Id(expenseId, user.getId());
-        verify(expenseRepository).save(existingExpense);
+        assertThrows(EntityNotFoundException.class, () -> expenseService.update(expenseId, updateBody, user2));
     }
 
     @Test
@@ -209,26 +314,10 @@ class ExpenseServiceTest {
     void deleteExpense() {
         UUID expenseId = UUID.randomUUID();
 
-        // Create existing expense using domain constructor
-        Expense existingExpense = new Expense(
-                expenseId,
-                LocalDateTime.now().minusDays(2),
-                BigDecimal.valueOf(50),
-                "Old Description",
-                LocalDateTime.now().minusDays(1),
-                ECategory.HEALTH,
-                ECurrency.USD,
-                EPaymentMethod.CREDIT_CARD,
-                user
-        );
-
-        when(expenseRepository.findByIdAndUser_Id(expenseId, user.getId()))
-                .thenReturn(existingExpense);
-
         expenseService.delete(expenseId, user);
 
-        verify(expenseRepository).findByIdAndUser_Id(expenseId, user.getId());
-        verify(expenseRepository).delete(existingExpense);
+        verify(expenseRepository).deleteByIdAndUser_Id(expenseId, user.getId());
+        verify(expenseRepository, never()).findByIdAndUser_Id(any(), any(), any());
     }
 
     @Test
@@ -236,14 +325,69 @@ class ExpenseServiceTest {
     void deleteExpenseFromDifferentUser() {
         UUID expenseId = UUID.randomUUID();
 
-        when(expenseRepository.findByIdAndUser_Id(expenseId, user2.getId()))
-                .thenThrow(new EntityNotFoundException("Expense not found for id: " + expenseId));
+        doThrow(new EntityNotFoundException("Expense not found for id: " + expenseId))
+                .when(expenseRepository).deleteByIdAndUser_Id(expenseId, user2.getId());
 
         EntityNotFoundException thrown = assertThrows(EntityNotFoundException.class,
                 () -> expenseService.delete(expenseId, user2));
 
         assertEquals("Expense not found for id: " + expenseId, thrown.getMessage());
-        verify(expenseRepository, times(0)).delete(any(Expense.class));
+        verify(changeVersions, never()).increment(any());
+    }
+
+    @Test
+    @DisplayName("Should bulk delete expenses matching the filter")
+    void deleteAllExpenses() {
+        ExpenseFilter filter = new ExpenseFilter("2025-08", null, null, null, ECategory.FOOD, null);
+        when(expenseRepository.deleteAll(user.getId(), filter)).thenReturn(42L);
+
+        BulkResultResponse response = expenseService.deleteAll(filter, user);
+
+        assertEquals(42L, response.affected());
+    }
+
+    @Test
+    @DisplayName("Should refuse a bulk delete without any filter")
+    void deleteAllExpensesWithoutFilter() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> expenseService.deleteAll(filter, user));
+        verify(expenseRepository, never()).deleteAll(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should bulk update expenses matching the filter")
+    void updateAllExpenses() {
+        ExpenseFilter filter = new ExpenseFilter("2025-08", null, null, null, ECategory.OTHER, null);
+        BulkUpdateExpenseRequest body = new BulkUpdateExpenseRequest(ECategory.FOOD, null, null);
+        ExpensePatch patch = new ExpensePatch(null, null, null, ECategory.FOOD, null, null);
+        when(expenseRepository.updateAll(user.getId(), filter, patch)).thenReturn(7L);
+
+        BulkResultResponse response = expenseService.updateAll(filter, body, user);
+
+        assertEquals(7L, response.affected());
+        verify(changeVersions).increment(user.getId());
+    }
+
+    @Test
+    @DisplayName("Should refuse a bulk update without any field to change")
+    void updateAllExpensesWithoutFields() {
+        ExpenseFilter filter = new ExpenseFilter("2025-08", null, null, null, null, null);
+        BulkUpdateExpenseRequest body = new BulkUpdateExpenseRequest(null, null, null);
+
+        assertThrows(IllegalArgumentException.class, () -> expenseService.updateAll(filter, body, user));
+        verify(expenseRepository, never()).updateAll(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep the change version when a bulk delete matches nothing")
+    void deleteAllExpensesWithoutMatches() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, ECategory.FOOD, null);
+        when(expenseRepository.deleteAll(user.getId(), filter)).thenReturn(0L);
+
+        expenseService.deleteAll(filter, user);
+
+        verify(changeVersions, never()).increment(any());
     }
 
     @Test
@@ -252,52 +396,36 @@ class ExpenseServiceTest {
         LocalDate today = LocalDate.now();
         LocalDate firstDayOfMonth = today.withDayOfMonth(1);
 
-        when(expenseRepository.countAndSumTotalAmount(any(), any(), any()))
-                .thenReturn(new ExpenseCountAndTotalProjection() {
-                    @Override
-                    public BigDecimal getTotalExpense() {
-                        return BigDecimal.valueOf(100);
-                    }
-
-                    @Override
-                    public int getCount() {
-                        return 5;
-                    }
-                });
-
-        when(expenseRepository.groupByCurrencyAndSumAmount(any(), any(), any()))
-                .thenReturn(List.of(new ExpenseCurrencyProjection() {
-                    @Override
-                    public ECurrency getCurrency() {
-                        return ECurrency.USD;
-                    }
-
-                    @Override
-                    public BigDecimal getTotal() {
-                        return BigDecimal.valueOf(100);
-                    }
-                }));
-
-        when(expenseRepository.groupByExpenseCategoryAndSumAmount(any(), any(), any()))
-                .thenReturn(List.of(new ExpenseCategoryProjection() {
-                    @Override
-                    public ECategory getCategory() {
-                        return ECategory.FOOD;
-                    }
-
-                    @Override
-                    public BigDecimal getTotal() {
-                        return BigDecimal.valueOf(100);
-                    }
-
-                    @Override
-                    public int getCount() {
-                        return 5;
-                    }
-                }));
-
-        when(expenseRepository.getMostUsedPaymentMethod(any(), any(), any()))
-                .thenReturn(new PaymentMethodSummary(EPaymentMethod.CREDIT_CARD, 3L));
+        ExpenseCurrencyProjection usd = new ExpenseCurrencyProjection() {
+            @Override
+            public ECurrency getCurrency() {
+                return ECurrency.USD;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return BigDecimal.valueOf(100);
+            }
+        };
+        ExpenseCategoryProjection food = new ExpenseCategoryProjection() {
+            @Override
+            public ECategory getCategory() {
+                return ECategory.FOOD;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return BigDecimal.valueOf(100);
+            }
+
+            @Override
+            public int getCount() {
+                return 5;
+            }
+        };
+        when(expenseRepository.summarize(eq(user.getId()), eq(firstDayOfMonth.atStartOfDay()), any()))
+                .thenReturn(new ExpenseSummaryProjection(List.of(usd), List.of(food),
+                        new PaymentMethodSummary(EPaymentMethod.CREDIT_CARD, 3L), BigDecimal.valueOf(100), 5));
 
         ExpenseSummaryResponse response = expenseService.getExpenseSummary(user, null, null);
 
@@ -310,6 +438,105 @@ class ExpenseServiceTest {
         assertEquals(EPaymentMethod.CREDIT_CARD, response.mostUsedPaymentMethod().method());
     }
 
+    @Test
+    @DisplayName("Should reuse a computed summary until the user's expenses change")
+    void getExpenseSummary_ShouldBeCachedPerChangeVersion() {
+        LocalDate startDate = LocalDate.now().minusDays(7);
+        LocalDate endDate = LocalDate.now();
+        when(expenseRepository.summarize(eq(user.getId()), any(), any()))
+                .thenReturn(new ExpenseSummaryProjection(List.of(), List.of(), null, BigDecimal.ZERO, 0));
+        when(changeVersions.findByUserId(user.getId())).thenReturn(1L, 1L, 2L);
+
+        ExpenseSummaryResponse first = expenseService.getExpenseSummary(user, startDate, endDate);
+        ExpenseSummaryResponse cached = expenseService.getExpenseSummary(user, startDate, endDate);
+        ExpenseSummaryResponse recomputed = expenseService.getExpenseSummary(user, startDate, endDate);
+
+        assertSame(first, cached);
+        assertNotSame(first, recomputed);
+        verify(expenseRepository, times(2)).summarize(eq(user.getId()), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should fill the time series without gaps and align every series to the buckets")
+    void getTimeSeries() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+        when(expenseRepository.timeSeries(user.getId(), filter, ETimeGranularity.MONTH, ETimeSeriesSplit.CATEGORY))
+                .thenReturn(List.of(
+                        new ExpenseBucketProjection(LocalDate.of(2025, 1, 1), "FOOD", BigDecimal.TEN, 2),
+                        new ExpenseBucketProjection(LocalDate.of(2025, 3, 1), "FOOD", BigDecimal.ONE, 1),
+                        new ExpenseBucketProjection(LocalDate.of(2025, 3, 1), "RENT", BigDecimal.valueOf(2), 1)
+                ));
+
+        ExpenseTimeSeriesResponse response = expenseService.getTimeSeries(user, filter,
+                ETimeGranularity.MONTH, ETimeSeriesSplit.CATEGORY);
+
+        assertEquals(List.of(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1)), response.buckets());
+        assertEquals(2, response.series().size());
+        assertEquals("RENT", response.series().get(0).key());
+        assertEquals(List.of(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.valueOf(2)), response.series().get(0).totals());
+        assertEquals("FOOD", response.series().get(1).key());
+        assertEquals(List.of(2L, 0L, 1L), response.series().get(1).counts());
+    }
+
+    @Test
+    @DisplayName("Should cover the whole requested range with zero-filled buckets")
+    void getTimeSeriesOverRequestedRange() {
+        ExpenseFilter filter = new ExpenseFilter(null, LocalDateTime.of(2025, 1, 15, 0, 0),
+                LocalDateTime.of(2025, 6, 10, 23, 59), null, null, null);
+        when(expenseRepository.timeSeries(user.getId(), filter, ETimeGranularity.MONTH, null))
+                .thenReturn(List.of(new ExpenseBucketProjection(LocalDate.of(2025, 3, 1), null, BigDecimal.TEN, 2)));
+
+        ExpenseTimeSeriesResponse response = expenseService.getTimeSeries(user, filter, ETimeGranularity.MONTH, null);
+
+        assertEquals(6, response.buckets().size());
+        assertEquals(LocalDate.of(2025, 1, 1), response.buckets().get(0));
+        assertEquals(LocalDate.of(2025, 6, 1), response.buckets().get(5));
+        assertEquals(1, response.series().size());
+        assertNull(response.series().get(0).key());
+        assertEquals(List.of(0L, 0L, 2L, 0L, 0L, 0L), response.series().get(0).counts());
+    }
+
+    @Test
+    @DisplayName("Should return zero-filled buckets for a requested range without expenses")
+    void getTimeSeriesOverEmptyRange() {
+        ExpenseFilter filter = new ExpenseFilter("2025-02", null, null, null, null, null);
+        when(expenseRepository.timeSeries(user.getId(), filter, ETimeGranularity.WEEK, null)).thenReturn(List.of());
+
+        ExpenseTimeSeriesResponse response = expenseService.getTimeSeries(user, filter, ETimeGranularity.WEEK, null);
+
+        // February 2025 starts on a Saturday, so the first week starts in January
+        assertEquals(LocalDate.of(2025, 1, 27), response.buckets().get(0));
+        assertEquals(LocalDate.of(2025, 2, 24), response.buckets().get(response.buckets().size() - 1));
+        assertEquals(5, response.buckets().size());
+        assertEquals(List.of(0L, 0L, 0L, 0L, 0L), response.series().get(0).counts());
+    }
+
+    @Test
+    @DisplayName("Should fail with the bucket when the database returns one the granularity does not generate")
+    void getTimeSeriesWithUnexpectedBucket() {
+        ExpenseFilter filter = new ExpenseFilter("2025-02", null, null, null, null, null);
+        // a Sunday, where a database starting weeks on Sunday would put the bucket
+        when(expenseRepository.timeSeries(user.getId(), filter, ETimeGranularity.WEEK, null)).thenReturn(List.of(
+                new ExpenseBucketProjection(LocalDate.of(2025, 2, 9), null, new BigDecimal("10.00"), 1)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> expenseService.getTimeSeries(user, filter, ETimeGranularity.WEEK, null));
+
+        assertTrue(exception.getMessage().contains("2025-02-09"));
+    }
+
+    @Test
+    @DisplayName("Should return an empty time series when nothing matches")
+    void getTimeSeriesWithoutExpenses() {
+        ExpenseFilter filter = new ExpenseFilter(null, null, null, null, null, null);
+        when(expenseRepository.timeSeries(user.getId(), filter, ETimeGranularity.DAY, null)).thenReturn(List.of());
+
+        ExpenseTimeSeriesResponse response = expenseService.getTimeSeries(user, filter, ETimeGranularity.DAY, null);
+
+        assertTrue(response.buckets().isEmpty());
+        assertTrue(response.series().isEmpty());
+    }
+
     @Test
     @DisplayName("Should throw exception when startDate is after endDate")
     void getExpenseSummaryWithInvalidDateRange() {
@@ -350,6 +577,27 @@ class ExpenseServiceTest {
         assertEquals("Expense ID cannot be null", thrown2.getMessage());
     }
 
+    @Test
+    @DisplayName("Should save valid expenses in one batch and report invalid ones")
+    void saveAllExpenses() {
+        ExpenseService service = new ExpenseService(expenseRepository, changeVersions, summaryCache,
+                Validation.buildDefaultValidatorFactory().getValidator());
+        CreateExpenseRequest invalid = new CreateExpenseRequest(
+                BigDecimal.valueOf(-1), "No", LocalDateTime.now().minusHours(1),
+                ECategory.FOOD, ECurrency.BRL, EPaymentMethod.PIX
+        );
+
+        BatchResponse response = service.saveAll(Arrays.asList(createBody, invalid, null, createBody), user);
+
+        assertEquals(4, response.total());
+        assertEquals(2, response.succeeded());
+        assertEquals(EBatchItemStatus.CREATED, response.items().get(0).status());
+        assertEquals(2, response.items().get(1).errors().size());
+        assertEquals(List.of("Expense cannot be null"), response.items().get(2).errors());
+        assertNotNull(response.items().get(3).id());
+        verify(expenseRepository).saveAll(argThat(expenses -> expenses.size() == 2));
+    }
+
     @Test
     @DisplayName("Should enforce domain validation on save")
     void shouldEnforceDomainValidationOnSave() {
@@ -371,20 +619,6 @@ class ExpenseServiceTest {
     @DisplayName("Should enforce domain validation on update")
     void shouldEnforceDomainValidationOnUpdate() {
         UUID expenseId = UUID.randomUUID();
-        Expense existingExpense = new Expense(
-                expenseId,
-                LocalDateTime.now().minusDays(2),
-                BigDecimal.valueOf(50),
-                "Valid Description",
-                LocalDateTime.now().minusDays(1),
-                ECategory.HEALTH,
-                ECurrency.USD,
-                EPaymentMethod.CREDIT_CARD,
-                user
-        );
-
-        when(expenseRepository.findByIdAndUser_Id(expenseId, user.getId()))
-                .thenReturn(existingExpense);
 
         UpdateExpenseRequest invalidRequest = new UpdateExpenseRequest(
                 null, "ab", null, null, null, null
@@ -393,5 +627,6 @@ class ExpenseServiceTest {
         IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
                 () -> expenseService.update(expenseId, invalidRequest, user));
         assertEquals("Description must be between 3 and 255 characters", thrown.getMessage());
+        verify(expenseRepository, never()).update(any(), any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,148 @@
+package com.spedine.trackit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spedine.trackit.dto.MessageResponse;
+import com.spedine.trackit.infra.exception.IdempotencyKeyMismatchException;
+import com.spedine.trackit.infra.util.HashUtils;
+import com.spedine.trackit.model.IdempotencyRecord;
+import com.spedine.trackit.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    IdempotencyRecordRepository repository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    IdempotencyService idempotencyService;
+    UUID userId;
+    AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper().findAndRegisterModules(), transactionManager);
+        userId = UUID.randomUUID();
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should run the action and store its response for a new key")
+    void execute_ShouldStoreResponse() {
+        when(repository.find(userId, "key-1")).thenReturn(Optional.empty());
+
+        IdempotencyService.Result<MessageResponse> result = execute("key-1", Map.of("amount", 10));
+
+        assertFalse(result.replayed());
+        assertEquals(1, executions.get());
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(captor.capture());
+        assertEquals("{\"message\":\"created 1\"}", captor.getValue().responseBody());
+    }
+
+    @Test
+    @DisplayName("Should replay the stored response without running the action")
+    void execute_ShouldReplayStoredResponse() {
+        when(repository.find(userId, "key-1")).thenReturn(Optional.empty());
+        execute("key-1", Map.of("amount", 10));
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(captor.capture());
+        when(repository.find(userId, "key-1")).thenReturn(Optional.of(captor.getValue()));
+
+        IdempotencyService.Result<MessageResponse> replay = execute("key-1", Map.of("amount", 10));
+
+        assertTrue(replay.replayed());
+        assertEquals(new MessageResponse("created 1"), replay.response());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused for a different request")
+    void execute_ShouldRejectDifferentRequest() {
+        when(repository.find(userId, "key-1")).thenReturn(Optional.empty());
+        execute("key-1", Map.of("amount", 10));
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(captor.capture());
+        when(repository.find(userId, "key-1")).thenReturn(Optional.of(captor.getValue()));
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> execute("key-1", Map.of("amount", 20)));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    @DisplayName("Should run the action every time when no key is sent")
+    void execute_ShouldNotStoreWithoutKey() {
+        execute(null, Map.of("amount", 10));
+        execute(null, Map.of("amount", 10));
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Should not store the response when the action fails")
+    void execute_ShouldNotStoreFailures() {
+        when(repository.find(userId, "key-1")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(userId, "key-1", "test",
+                Map.of(), MessageResponse.class, () -> {
+                    throw new IllegalArgumentException("Invalid expense");
+                }));
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should store the response in the same transaction as the action")
+    void execute_ShouldStoreWithinActionTransaction() {
+        when(repository.find(userId, "key-1")).thenReturn(Optional.empty());
+
+        execute("key-1", Map.of("amount", 10));
+
+        InOrder inOrder = inOrder(transactionManager, repository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(repository).save(any());
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should roll back and replay the response of a request that stored the key first")
+    void execute_ShouldReplayWhenAnotherRequestStoredFirst() {
+        IdempotencyRecord winner = new IdempotencyRecord(userId, "key-1",
+                HashUtils.sha256("test:" + "{\"amount\":10}"), "{\"message\":\"created elsewhere\"}", LocalDateTime.now());
+        when(repository.find(userId, "key-1")).thenReturn(Optional.empty(), Optional.empty(), Optional.of(winner));
+        doThrow(new DuplicateKeyException("duplicate key")).when(repository).save(any());
+
+        IdempotencyService.Result<MessageResponse> result = execute("key-1", Map.of("amount", 10));
+
+        assertTrue(result.replayed());
+        assertEquals(new MessageResponse("created elsewhere"), result.response());
+        verify(transactionManager).rollback(any());
+    }
+
+    private IdempotencyService.Result<MessageResponse> execute(String key, Object request) {
+        return idempotencyService.execute(userId, key, "test", request, MessageResponse.class,
+                () -> new MessageResponse("created " + executions.incrementAndGet()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.dto.TokenResponse;
+import com.spedine.trackit.infra.exception.JwtAuthenticationException;
+import com.spedine.trackit.infra.util.HashUtils;
+import com.spedine.trackit.model.RefreshToken;
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    private static final String RAW_TOKEN = "raw-refresh-token";
+
+    @Mock
+    RefreshTokenRepository refreshTokenRepository;
+
+    @Mock
+    TokenService tokenService;
+
+    @Mock
+    TokenRevocationService tokenRevocationService;
+
+    RefreshTokenService refreshTokenService;
+    User user;
+    UUID sessionId;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, tokenService, tokenRevocationService,
+                Duration.ofDays(7));
+        user = new User("Test User", "test@example.com", "encodedPassword");
+        sessionId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should store only the hash of a new refresh token")
+    void startSession_ShouldStoreHashedToken() {
+        when(tokenService.genToken(eq(user), any(UUID.class))).thenReturn("access");
+        when(tokenService.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+
+        TokenResponse response = refreshTokenService.startSession(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("access", response.token());
+        assertEquals(900, response.expiresIn());
+        assertEquals(HashUtils.sha256(response.refreshToken()), saved.getValue().getTokenHash());
+    }
+
+    @Test
+    @DisplayName("Should rotate an active refresh token within the same session")
+    void rotate_ShouldIssueNewPairInSameSession() {
+        RefreshToken current = new RefreshToken(user, sessionId, HashUtils.sha256(RAW_TOKEN),
+                LocalDateTime.now().plusDays(1));
+        when(refreshTokenRepository.findByTokenHash(HashUtils.sha256(RAW_TOKEN))).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markUsed(eq(current.getId()), any(LocalDateTime.class))).thenReturn(true);
+        when(tokenService.genToken(user, sessionId)).thenReturn("new-access");
+        when(tokenService.getAccessTokenTtl()).thenReturn(Duration.ofMinutes(15));
+
+        TokenResponse response = refreshTokenService.rotate(RAW_TOKEN);
+
+        assertEquals("new-access", response.token());
+        assertNotEquals(RAW_TOKEN, response.refreshToken());
+        verify(tokenRevocationService, never()).revokeSession(any());
+    }
+
+    @Test
+    @DisplayName("Should revoke the session when a spent refresh token is presented again")
+    void rotate_ShouldRevokeSession_WhenTokenIsReused() {
+        RefreshToken spent = new RefreshToken(UUID.randomUUID(), user, sessionId, HashUtils.sha256(RAW_TOKEN),
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().minusMinutes(1), null, null);
+        when(refreshTokenRepository.findByTokenHash(HashUtils.sha256(RAW_TOKEN))).thenReturn(Optional.of(spent));
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+
+        verify(tokenRevocationService).revokeSession(sessionId);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should reject expired refresh tokens")
+    void rotate_ShouldReject_WhenTokenExpired() {
+        RefreshToken expired = new RefreshToken(user, sessionId, HashUtils.sha256(RAW_TOKEN),
+                LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(HashUtils.sha256(RAW_TOKEN))).thenReturn(Optional.of(expired));
+
+        assertThrows(JwtAuthenticationException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+
+        verify(refreshTokenRepository, never()).markUsed(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+}
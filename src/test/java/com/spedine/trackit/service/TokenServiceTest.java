@@ -0,0 +1,89 @@
+package com.spedine.trackit.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.spedine.trackit.model.AuthenticatedUser;
+import com.spedine.trackit.model.ERole;
+import com.spedine.trackit.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final String SECRET = "test-secret";
+
+    TokenService tokenService;
+    User user;
+    UUID sessionId;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenService(SECRET, Duration.ofMinutes(15), 100, new SimpleMeterRegistry());
+        user = new User("Test User", "test@example.com", "encodedPassword");
+        sessionId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should embed the user identity in the generated token")
+    void genToken_ShouldEmbedIdentityClaims() {
+        DecodedJWT token = tokenService.verify(tokenService.genToken(user, sessionId));
+
+        Optional<AuthenticatedUser> principal = tokenService.getAuthenticatedUser(token);
+
+        assertTrue(principal.isPresent());
+        assertEquals(user.getId(), principal.get().id());
+        assertEquals(user.getName(), principal.get().name());
+        assertEquals(user.getEmail(), principal.get().getUsername());
+        assertEquals(ERole.USER, principal.get().role());
+        assertEquals(Optional.of(sessionId), tokenService.getSessionId(token));
+    }
+
+    @Test
+    @DisplayName("Should not build a principal from tokens without identity claims")
+    void getAuthenticatedUser_ShouldBeEmpty_ForLegacyTokens() {
+        String legacyToken = JWT.create()
+                .withIssuer("TrackIt API")
+                .withSubject(user.getEmail())
+                .withExpiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .sign(Algorithm.HMAC256(SECRET));
+
+        DecodedJWT token = tokenService.verify(legacyToken);
+
+        assertEquals(user.getEmail(), token.getSubject());
+        assertTrue(tokenService.getAuthenticatedUser(token).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject tokens signed with another secret")
+    void verify_ShouldThrow_WhenSignatureIsInvalid() {
+        String forged = JWT.create()
+                .withIssuer("TrackIt API")
+                .withSubject(user.getEmail())
+                .sign(Algorithm.HMAC256("another-secret"));
+
+        assertThrows(JWTVerificationException.class, () -> tokenService.verify(forged));
+    }
+
+    @Test
+    @DisplayName("Should serve repeated verifications of the same token from the cache")
+    void verify_ShouldReuseVerifiedToken() {
+        String token = tokenService.genToken(user, sessionId);
+
+        DecodedJWT first = tokenService.verify(token);
+        DecodedJWT second = tokenService.verify(token);
+
+        assertSame(first, second);
+    }
+}
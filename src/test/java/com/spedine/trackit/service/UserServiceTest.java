@@ -0,0 +1,120 @@
+package com.spedine.trackit.service;
+
+import com.spedine.trackit.dto.BatchResponse;
+import com.spedine.trackit.dto.UserRegisterRequest;
+import com.spedine.trackit.model.EBatchItemStatus;
+import com.spedine.trackit.model.User;
+import com.spedine.trackit.repository.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    UserRepository userRepository;
+
+    @Mock
+    PasswordEncoder passwordEncoder;
+
+    ThreadPoolTaskExecutor executor;
+    UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.initialize();
+        userService = new UserService(userRepository, passwordEncoder,
+                Validation.buildDefaultValidatorFactory().getValidator(), executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Should insert valid rows in one batch and report every row")
+    void registerUsers_ShouldReportEachRow() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of("taken@example.com"));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+
+        BatchResponse response = userService.registerUsers(List.of(
+                request("First User", "first@example.com"),
+                request("Taken User", "taken@example.com"),
+                request("Bad", "second@example.com"),
+                request("Second User", "first@example.com"),
+                request("Third User", "third@example.com")
+        ));
+
+        assertEquals(5, response.total());
+        assertEquals(2, response.succeeded());
+        assertEquals(3, response.failed());
+        assertEquals(EBatchItemStatus.CREATED, response.items().get(0).status());
+        assertEquals(List.of("User with this email already exists"), response.items().get(1).errors());
+        assertEquals(EBatchItemStatus.FAILED, response.items().get(2).status());
+        assertEquals(List.of("Duplicate email in request"), response.items().get(3).errors());
+        assertEquals(EBatchItemStatus.CREATED, response.items().get(4).status());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).insertAll(inserted.capture());
+        assertEquals(List.of("first@example.com", "third@example.com"),
+                inserted.getValue().stream().map(User::getEmail).toList());
+        assertEquals("hashed-P@ssw0rd123", inserted.getValue().get(0).getPassword());
+        assertEquals(response.items().get(4).id(), inserted.getValue().get(1).getId());
+        verify(passwordEncoder, times(2)).encode(anyString());
+    }
+
+    @Test
+    @DisplayName("Should report rows whose email was registered while the batch was processed")
+    void registerUsers_ShouldReportRowsSkippedByInsert() {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(Set.of());
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "hashed-" + invocation.getArgument(0));
+        when(userRepository.insertAll(anyList())).thenReturn(Set.of("second@example.com"));
+
+        BatchResponse response = userService.registerUsers(List.of(
+                request("First User", "first@example.com"),
+                request("Second User", "second@example.com")
+        ));
+
+        assertEquals(1, response.succeeded());
+        assertEquals(EBatchItemStatus.CREATED, response.items().get(0).status());
+        assertEquals(List.of("User with this email already exists"), response.items().get(1).errors());
+    }
+
+    @Test
+    @DisplayName("Should reject rows whose passwords do not match")
+    void registerUsers_ShouldRejectMismatchedPasswords() {
+        BatchResponse response = userService.registerUsers(List.of(
+                new UserRegisterRequest("First User", "first@example.com", "P@ssw0rd123", "Different123")
+        ));
+
+        assertEquals(1, response.failed());
+        assertEquals(List.of("Passwords do not match"), response.items().get(0).errors());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    private UserRegisterRequest request(String name, String email) {
+        return new UserRegisterRequest(name, email, "P@ssw0rd123", "P@ssw0rd123");
+    }
+}